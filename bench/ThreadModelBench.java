@@ -0,0 +1,124 @@
+import java.io.InputStream;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load generator for comparing the default thread model with the virtual-threads profile.
+ * Logs in as admin, holds {@code sse} open-shift streams open, then fires {@code requests} GETs at a JDBC-backed
+ * page with {@code concurrency} callers and prints throughput and latency percentiles.
+ * <p>
+ * Usage: java bench/ThreadModelBench.java http://localhost:8090 ADMIN_PIN [sse] [requests] [concurrency] [path]
+ */
+public class ThreadModelBench {
+
+    public static void main(String[] args) throws Exception {
+        String base = args[0];
+        String adminPin = args[1];
+        int sse = args.length > 2 ? Integer.parseInt(args[2]) : 250;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 5000;
+        int concurrency = args.length > 4 ? Integer.parseInt(args[4]) : 400;
+        String path = args.length > 5 ? args[5] : "/admin/time-entries";
+
+        HttpClient client = HttpClient.newBuilder()
+            .cookieHandler(new CookieManager())
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newFixedThreadPool(32))
+            .build();
+        login(client, base, adminPin);
+
+        List<CompletableFuture<HttpResponse<InputStream>>> streams = new ArrayList<>();
+        for (int i = 0; i < sse; i++) {
+            streams.add(client.sendAsync(get(base + "/admin/open-shifts/stream"), HttpResponse.BodyHandlers.ofInputStream()));
+        }
+        int connected = 0;
+        for (var s : streams) {
+            try {
+                if (s.get().statusCode() == 200) {
+                    connected++;
+                }
+            } catch (Exception ignored) {
+            }
+        }
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(requests));
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            workers.add(CompletableFuture.runAsync(() -> {
+                while (next.getAndIncrement() < requests) {
+                    long t0 = System.nanoTime();
+                    try {
+                        var res = client.send(get(base + path), HttpResponse.BodyHandlers.discarding());
+                        if (res.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception ex) {
+                        errors.incrementAndGet();
+                    }
+                    latencies.add(System.nanoTime() - t0);
+                }
+            }, callers));
+        }
+        CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        callers.shutdown();
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("sse streams held: %d/%d%n", connected, sse);
+        System.out.printf("requests: %d  concurrency: %d  errors: %d%n", requests, concurrency, errors.get());
+        System.out.printf("throughput: %.1f req/s%n", requests / seconds);
+        System.out.printf("latency ms: p50=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+            pct(sorted, 50), pct(sorted, 95), pct(sorted, 99), pct(sorted, 100));
+        System.exit(0);
+    }
+
+    private static void login(HttpClient client, String base, String pin) throws Exception {
+        String page = client.send(get(base + "/admin/login"), HttpResponse.BodyHandlers.ofString()).body();
+        Matcher m = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"").matcher(page);
+        if (!m.find()) {
+            throw new IllegalStateException("No CSRF token on the login page");
+        }
+        String form = "username=admin&password=" + URLEncoder.encode(pin, StandardCharsets.UTF_8)
+            + "&_csrf=" + URLEncoder.encode(m.group(1), StandardCharsets.UTF_8);
+        var res = client.send(HttpRequest.newBuilder(URI.create(base + "/admin/login"))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(form))
+            .build(), HttpResponse.BodyHandlers.discarding());
+        String location = res.headers().firstValue("Location").orElse("");
+        if (location.contains("error")) {
+            throw new IllegalStateException("Admin login failed");
+        }
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(60)).GET().build();
+    }
+
+    private static double pct(List<Long> sorted, int p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int i = Math.min(sorted.size() - 1, (int) Math.ceil(p / 100.0 * sorted.size()) - 1);
+        return sorted.get(Math.max(0, i)) / 1e6;
+    }
+}
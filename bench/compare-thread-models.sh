@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Runs ThreadModelBench against the app twice: default platform threads, then the virtual-threads profile.
+# Needs a Java 21+ JVM on PATH for the second run to differ; uses an in-memory H2 database.
+#
+# Usage: bench/compare-thread-models.sh [sse] [requests] [concurrency] [path]
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+PORT=${PORT:-8095}
+PIN=${ADMIN_PIN:-1234}
+STARTUP_TIMEOUT=${STARTUP_TIMEOUT:-120}
+ARGS=("${@}")
+
+mvn -B -q package -DskipTests
+JAR=$(ls target/*.jar | grep -v original | head -1)
+
+run() {
+  local label=$1; shift
+  java -jar "$JAR" \
+    --server.port="$PORT" \
+    --spring.datasource.url="jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE" \
+    --spring.datasource.username=sa \
+    --app.bootstrap.admin-pin="$PIN" \
+    --app.pin.lookup-secret=bench-only-pin-lookup-secret \
+    --logging.level.root=WARN "$@" > "target/bench-$label.log" 2>&1 &
+  local pid=$!
+  local waited=0
+  until curl -s -o /dev/null "http://localhost:$PORT/admin/login"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "$label: app exited during startup, see target/bench-$label.log" >&2
+      exit 1
+    fi
+    if (( waited >= STARTUP_TIMEOUT )); then
+      echo "$label: app not up after ${STARTUP_TIMEOUT}s, see target/bench-$label.log" >&2
+      kill "$pid" 2>/dev/null || true
+      exit 1
+    fi
+    sleep 1
+    waited=$((waited + 1))
+  done
+  echo "== $label"
+  java bench/ThreadModelBench.java "http://localhost:$PORT" "$PIN" "${ARGS[@]}"
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+}
+
+run platform
+run virtual --spring.profiles.active=virtual-threads
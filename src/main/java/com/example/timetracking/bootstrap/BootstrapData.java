@@ -1,5 +1,6 @@
 package com.example.timetracking.bootstrap;
 
+import com.example.timetracking.model.Employee;
 import com.example.timetracking.model.EmployeeRole;
 import com.example.timetracking.model.Location;
 import com.example.timetracking.model.LocationType;
@@ -7,6 +8,7 @@ import com.example.timetracking.repo.EmployeeRepository;
 import com.example.timetracking.repo.LocationRepository;
 import com.example.timetracking.service.EmployeeService;
 import com.example.timetracking.service.PinService;
+import com.example.timetracking.service.VerifiedPinCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,6 +16,7 @@ import org.springframework.stereotype.Component;
 
 import java.time.Clock;
 import java.time.Instant;
+import java.util.Comparator;
 
 @Component
 @RequiredArgsConstructor
@@ -23,6 +26,7 @@ public class BootstrapData implements CommandLineRunner {
     private final LocationRepository locationRepository;
     private final EmployeeService employeeService;
     private final PinService pinService;
+    private final VerifiedPinCache verifiedPinCache;
     private final Clock clock;
 
     @Value("${app.bootstrap.admin-pin:}")
@@ -53,12 +57,15 @@ public class BootstrapData implements CommandLineRunner {
         if (bootstrapAdminPin != null && !bootstrapAdminPin.isBlank()) {
             var admins = employeeRepository.findAllByRoleAndActiveIsTrue(EmployeeRole.SUPER_ADMIN);
             if (admins.isEmpty()) {
-                var admin = new com.example.timetracking.model.Employee();
+                var admin = new Employee();
                 admin.setFullName("Boss");
                 admin.setRole(EmployeeRole.SUPER_ADMIN);
                 admin.setActive(true);
                 admin.setCreatedAt(Instant.now(clock));
                 admin.setPinHash(pinService.hashPin(bootstrapAdminPin));
+                String lookupKey = pinService.lookupKey(bootstrapAdminPin);
+                employeeService.releasePinLookup(lookupKey, -1L);
+                admin.setPinLookup(lookupKey);
                 employeeRepository.save(admin);
                 System.out.println("========================================");
                 System.out.println("BOOTSTRAP: Set SUPER_ADMIN PIN to configured value");
@@ -67,8 +74,17 @@ public class BootstrapData implements CommandLineRunner {
                 System.out.println("Login at: /admin/login");
                 System.out.println("========================================");
             } else {
+                // Every admin gets the configured PIN, but only one of them can own its unique lookup key;
+                // the others resolve through the legacy scan.
+                var primary = admins.stream().min(Comparator.comparing(Employee::getId)).orElseThrow();
+                String pinHash = pinService.hashPin(bootstrapAdminPin);
+                String lookupKey = pinService.lookupKey(bootstrapAdminPin);
+                employeeService.releasePinLookup(lookupKey, primary.getId());
                 for (var admin : admins) {
-                    admin.setPinHash(pinService.hashPin(bootstrapAdminPin));
+                    admin.setPinHash(pinHash);
+                    admin.setPinLookup(admin == primary ? lookupKey : null);
+                    admin.setPinReissueRequired(false);
+                    verifiedPinCache.evictEmployee(admin.getId());
                 }
                 employeeRepository.saveAll(admins);
                 System.out.println("========================================");
@@ -2,10 +2,12 @@ package com.example.timetracking.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.time.Clock;
 
 @Configuration
+@EnableScheduling
 public class AppConfig {
 
     @Bean
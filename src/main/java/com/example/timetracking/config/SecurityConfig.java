@@ -1,24 +1,32 @@
 package com.example.timetracking.config;
 
 import com.example.timetracking.security.AdminPinAuthenticationProvider;
+import com.example.timetracking.security.CalibratedBCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
 public class SecurityConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.pin.bcrypt-strength:0}") int fixedStrength,
+                                           @Value("${app.pin.bcrypt-strength-min:8}") int minStrength,
+                                           @Value("${app.pin.bcrypt-strength-max:14}") int maxStrength,
+                                           @Value("${app.pin.bcrypt-verify-budget-millis:150}") long budgetMillis) {
+        if (fixedStrength > 0) {
+            return new CalibratedBCryptPasswordEncoder(fixedStrength);
+        }
+        return CalibratedBCryptPasswordEncoder.calibrate(minStrength, maxStrength, Duration.ofMillis(budgetMillis));
     }
 
     @Bean
@@ -41,7 +49,7 @@ public class SecurityConfig {
                     "/images/**",
                     "/webjars/**"
                 ).permitAll()
-                .requestMatchers("/admin/**").hasRole("SUPER_ADMIN")
+                .requestMatchers("/admin/**", "/actuator/**").hasRole("SUPER_ADMIN")
                 .anyRequest().authenticated()
             )
             .formLogin(form -> form
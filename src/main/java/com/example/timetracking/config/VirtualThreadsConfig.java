@@ -0,0 +1,36 @@
+package com.example.timetracking.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Active with {@code spring.threads.virtual.enabled=true} (the {@code virtual-threads} profile) on Java 21+. Spring Boot
+ * then serves Tomcat requests, SSE and {@code @Async}/scheduled work on virtual threads; this adds the JDBC permits.
+ * PIN hashing stays on {@code PinVerificationExecutor}'s bounded platform pool, since bcrypt is CPU-bound.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    @Bean
+    static BeanPostProcessor jdbcPermitPostProcessor(Environment env) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource ds && !(bean instanceof JdbcPermitDataSource)) {
+                    int permits = env.getProperty("app.jdbc.max-concurrent", Integer.class,
+                        env.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+                    long timeoutMillis = env.getProperty("app.jdbc.permit-timeout-millis", Long.class, 30000L);
+                    return new JdbcPermitDataSource(ds, permits, timeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.timetracking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "clock_requests")
+public class ClockRequest {
+
+    @Id
+    @Column(name = "request_key", length = 200)
+    private String requestKey;
+
+    @Column(name = "outcome", nullable = false, length = 1000)
+    private String outcome;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -39,4 +39,7 @@ public class Device {
 
     @Column(name = "registered_at", nullable = false, updatable = false)
     private Instant registeredAt;
+
+    @Column(name = "last_punch_sequence", nullable = false)
+    private long lastPunchSequence;
 }
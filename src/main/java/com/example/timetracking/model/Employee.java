@@ -8,6 +8,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -20,7 +21,9 @@ import java.time.Instant;
 public class Employee {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "employee_ids")
+    @TableGenerator(name = "employee_ids", table = "id_sequences", pkColumnName = "sequence_name",
+        valueColumnName = "next_val", pkColumnValue = "employees", allocationSize = 50)
     private Long id;
 
     @Column(name = "full_name", nullable = false, length = 160)
@@ -29,6 +32,12 @@ public class Employee {
     @Column(name = "pin_hash", nullable = false, length = 100)
     private String pinHash;
 
+    @Column(name = "pin_lookup", length = 64)
+    private String pinLookup;
+
+    @Column(name = "pin_reissue_required", nullable = false)
+    private boolean pinReissueRequired = false;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "role", nullable = false, length = 30)
     private EmployeeRole role;
@@ -0,0 +1,45 @@
+package com.example.timetracking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Completed hours per employee per UTC day, attributed to the day the shift started.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "employee_daily_totals")
+@IdClass(EmployeeDailyTotal.Key.class)
+public class EmployeeDailyTotal {
+
+    @Id
+    @Column(name = "employee_id")
+    private Long employeeId;
+
+    @Id
+    @Column(name = "work_date")
+    private LocalDate workDate;
+
+    @Column(name = "worked_seconds", nullable = false)
+    private long workedSeconds;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long employeeId;
+        private LocalDate workDate;
+    }
+}
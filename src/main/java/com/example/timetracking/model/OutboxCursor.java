@@ -0,0 +1,27 @@
+package com.example.timetracking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "outbox_cursors")
+public class OutboxCursor {
+
+    @Id
+    @Column(name = "consumer", length = 128)
+    private String consumer;
+
+    @Column(name = "last_event_id", nullable = false)
+    private long lastEventId;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,48 @@
+package com.example.timetracking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A clock or edit event recorded in the transaction that made the change. Ids come from IDENTITY rather than a
+ * pooled generator so they follow insert order, which the relay's cursor relies on.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 40)
+    private OutboxEventType eventType;
+
+    @Column(name = "location_id")
+    private Long locationId;
+
+    @Column(name = "time_entry_id")
+    private Long timeEntryId;
+
+    @Column(name = "payload", nullable = false, length = 2000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "origin_node", length = 64)
+    private String originNode;
+}
@@ -0,0 +1,7 @@
+package com.example.timetracking.model;
+
+public enum OutboxEventType {
+    SHIFT_OPENED,
+    SHIFT_CLOSED,
+    TIME_ENTRY_EDITED
+}
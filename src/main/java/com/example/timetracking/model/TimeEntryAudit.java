@@ -9,6 +9,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -21,7 +22,9 @@ import java.time.Instant;
 public class TimeEntryAudit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "time_entry_audit_ids")
+    @TableGenerator(name = "time_entry_audit_ids", table = "id_sequences", pkColumnName = "sequence_name",
+        valueColumnName = "next_val", pkColumnValue = "time_entry_audits", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
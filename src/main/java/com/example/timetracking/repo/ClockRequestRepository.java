@@ -0,0 +1,25 @@
+package com.example.timetracking.repo;
+
+import com.example.timetracking.model.ClockRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface ClockRequestRepository extends JpaRepository<ClockRequest, String> {
+
+    Optional<ClockRequest> findByRequestKeyAndCreatedAtAfter(String requestKey, Instant after);
+
+    // A plain insert rather than save(): merging an assigned id would overwrite a row another node just committed.
+    @Modifying
+    @Query(value = "insert into clock_requests (request_key, outcome, created_at) values (:key, :outcome, :createdAt)",
+        nativeQuery = true)
+    void insert(@Param("key") String key, @Param("outcome") String outcome, @Param("createdAt") Instant createdAt);
+
+    @Modifying
+    @Query("delete from ClockRequest r where r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
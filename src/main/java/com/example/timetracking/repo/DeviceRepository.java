@@ -1,7 +1,9 @@
 package com.example.timetracking.repo;
 
 import com.example.timetracking.model.Device;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -16,4 +18,8 @@ public interface DeviceRepository extends JpaRepository<Device, Long> {
 
     @Query("select d from Device d join fetch d.location where d.deviceUuid = :deviceUuid")
     Optional<Device> findByDeviceUuidWithLocation(@Param("deviceUuid") String deviceUuid);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select d from Device d where d.id = :id")
+    Optional<Device> findByIdForUpdate(@Param("id") long id);
 }
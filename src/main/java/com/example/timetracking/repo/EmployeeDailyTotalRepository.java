@@ -0,0 +1,8 @@
+package com.example.timetracking.repo;
+
+import com.example.timetracking.model.EmployeeDailyTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface EmployeeDailyTotalRepository
+    extends JpaRepository<EmployeeDailyTotal, EmployeeDailyTotal.Key>, EmployeeDailyTotalUpsert {
+}
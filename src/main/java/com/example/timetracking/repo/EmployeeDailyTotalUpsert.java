@@ -0,0 +1,12 @@
+package com.example.timetracking.repo;
+
+import java.time.LocalDate;
+
+public interface EmployeeDailyTotalUpsert {
+
+    /**
+     * Adds to the day's total, creating the row if needed, in one atomic statement so two shifts closing at once
+     * for the same employee and day cannot both try to insert it.
+     */
+    void addSeconds(long employeeId, LocalDate workDate, long seconds);
+}
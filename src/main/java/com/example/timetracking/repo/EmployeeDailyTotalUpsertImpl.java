@@ -0,0 +1,47 @@
+package com.example.timetracking.repo;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.time.LocalDate;
+
+/**
+ * The upsert has no portable SQL form: Postgres takes {@code ON CONFLICT}, MySQL (and H2 in MySQL mode)
+ * {@code ON DUPLICATE KEY UPDATE}. The form is picked from the Hibernate dialect once.
+ */
+class EmployeeDailyTotalUpsertImpl implements EmployeeDailyTotalUpsert {
+
+    private static final String INSERT =
+        "insert into employee_daily_totals (employee_id, work_date, worked_seconds) values (:employeeId, :workDate, :seconds) ";
+    private static final String POSTGRES_UPSERT = INSERT
+        + "on conflict (employee_id, work_date) do update set worked_seconds = employee_daily_totals.worked_seconds + excluded.worked_seconds";
+    private static final String MYSQL_UPSERT = INSERT
+        + "on duplicate key update worked_seconds = worked_seconds + :seconds";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile String upsert;
+
+    @Override
+    public void addSeconds(long employeeId, LocalDate workDate, long seconds) {
+        entityManager.createNativeQuery(upsert())
+            .setParameter("employeeId", employeeId)
+            .setParameter("workDate", workDate)
+            .setParameter("seconds", seconds)
+            .executeUpdate();
+    }
+
+    private String upsert() {
+        String sql = upsert;
+        if (sql == null) {
+            boolean postgres = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+            sql = postgres ? POSTGRES_UPSERT : MYSQL_UPSERT;
+            upsert = sql;
+        }
+        return sql;
+    }
+}
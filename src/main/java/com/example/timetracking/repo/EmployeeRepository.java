@@ -3,9 +3,26 @@ package com.example.timetracking.repo;
 import com.example.timetracking.model.Employee;
 import com.example.timetracking.model.EmployeeRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     List<Employee> findAllByRoleAndActiveIsTrue(EmployeeRole role);
+
+    List<Employee> findAllByPinLookupAndActiveIsTrue(String pinLookup);
+
+    List<Employee> findAllByPinLookupIsNullAndActiveIsTrue();
+
+    boolean existsByPinLookup(String pinLookup);
+
+    List<Employee> findAllByPinReissueRequiredIsTrue();
+
+    long countByPinReissueRequiredIsTrue();
+
+    @Modifying
+    @Query("update Employee e set e.pinLookup = null, e.pinReissueRequired = true where e.pinLookup = :pinLookup and e.id <> :keepId")
+    int releasePinLookup(@Param("pinLookup") String pinLookup, @Param("keepId") long keepId);
 }
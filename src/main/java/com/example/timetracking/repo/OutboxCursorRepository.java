@@ -0,0 +1,15 @@
+package com.example.timetracking.repo;
+
+import com.example.timetracking.model.OutboxCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface OutboxCursorRepository extends JpaRepository<OutboxCursor, String> {
+
+    @Query("select min(c.lastEventId) from OutboxCursor c where c.updatedAt >= :since")
+    Optional<Long> findMinLastEventIdUpdatedSince(@Param("since") Instant since);
+}
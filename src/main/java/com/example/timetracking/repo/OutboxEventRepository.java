@@ -0,0 +1,30 @@
+package com.example.timetracking.repo;
+
+import com.example.timetracking.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("select e from OutboxEvent e where e.id > :after order by e.id")
+    List<OutboxEvent> findAfter(@Param("after") long after, Pageable page);
+
+    @Query("select e.id from OutboxEvent e where e.id between :from and :to")
+    List<Long> findIdsBetween(@Param("from") long from, @Param("to") long to);
+
+    @Query("select coalesce(max(e.id), 0) from OutboxEvent e")
+    long maxId();
+
+    @Query("select coalesce(max(e.id), 0) from OutboxEvent e where e.createdAt < :before")
+    long maxIdCreatedBefore(@Param("before") Instant before);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.id <= :upTo and e.createdAt < :before")
+    int deleteDelivered(@Param("upTo") long upTo, @Param("before") Instant before);
+}
@@ -1,13 +1,14 @@
 package com.example.timetracking.repo;
 
 import com.example.timetracking.model.Employee;
-import com.example.timetracking.model.Location;
 import com.example.timetracking.model.TimeEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,11 +16,12 @@ public interface TimeEntryRepository extends JpaRepository<TimeEntry, Long> {
 
     Optional<TimeEntry> findFirstByEmployeeAndClockOutTimeIsNull(Employee employee);
 
-    @Query("select t from TimeEntry t where t.location = :location and t.clockOutTime is null")
-    List<TimeEntry> findOpenByLocation(Location location);
+    @Query("select t from TimeEntry t join fetch t.employee where t.clockOutTime is null")
+    List<TimeEntry> findAllOpenWithEmployee();
 
-    @Query("select t from TimeEntry t join fetch t.employee where t.location = :location and t.clockOutTime is null order by t.clockInTime desc")
-    List<TimeEntry> findOpenByLocationWithEmployee(@Param("location") Location location);
+    @Modifying
+    @Query("update TimeEntry t set t.clockOutTime = :clockOutTime where t.id = :id and t.clockOutTime is null")
+    int closeShift(@Param("id") long id, @Param("clockOutTime") Instant clockOutTime);
 
     @Query("select t from TimeEntry t join fetch t.employee where t.clockOutTime is not null and t.clockInTime < :to and t.clockOutTime > :from")
     List<TimeEntry> findCompletedOverlapping(@Param("from") Instant from, @Param("to") Instant to);
@@ -33,6 +35,12 @@ public interface TimeEntryRepository extends JpaRepository<TimeEntry, Long> {
     @Query("select t from TimeEntry t join fetch t.employee join fetch t.location join fetch t.device where t.id = :id")
     Optional<TimeEntry> findByIdWithDetails(@Param("id") long id);
 
-    @Query("select t from TimeEntry t where t.employee = :employee and t.clockInTime >= :from and t.clockInTime < :to")
-    List<TimeEntry> findByEmployeeBetween(Employee employee, Instant from, Instant to);
+    @Query("select t.employee.id as employeeId, max(t.clockInTime) as lastClockIn from TimeEntry t where t.employee in :employees group by t.employee.id")
+    List<LastClockIn> findLastClockInByEmployees(@Param("employees") Collection<Employee> employees);
+
+    interface LastClockIn {
+        Long getEmployeeId();
+
+        Instant getLastClockIn();
+    }
 }
@@ -1,16 +1,16 @@
 package com.example.timetracking.security;
 
-import com.example.timetracking.model.Employee;
 import com.example.timetracking.model.EmployeeRole;
-import com.example.timetracking.repo.EmployeeRepository;
+import com.example.timetracking.service.PinVerificationBusyException;
+import com.example.timetracking.service.PinVerificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -19,8 +19,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AdminPinAuthenticationProvider implements AuthenticationProvider {
 
-    private final EmployeeRepository employeeRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PinVerificationService pinVerificationService;
 
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
@@ -29,18 +28,17 @@ public class AdminPinAuthenticationProvider implements AuthenticationProvider {
             throw new BadCredentialsException("PIN required");
         }
 
-        List<Employee> admins = employeeRepository.findAllByRoleAndActiveIsTrue(EmployeeRole.SUPER_ADMIN);
-        for (Employee admin : admins) {
-            if (passwordEncoder.matches(pin, admin.getPinHash())) {
-                return new UsernamePasswordAuthenticationToken(
+        try {
+            return pinVerificationService.findActiveEmployee(pin, EmployeeRole.SUPER_ADMIN)
+                .map(admin -> new UsernamePasswordAuthenticationToken(
                     admin.getId().toString(),
                     "",
                     List.of(new SimpleGrantedAuthority("ROLE_SUPER_ADMIN"))
-                );
-            }
+                ))
+                .orElseThrow(() -> new BadCredentialsException("Invalid PIN"));
+        } catch (PinVerificationBusyException ex) {
+            throw new AuthenticationServiceException(ex.getMessage(), ex);
         }
-
-        throw new BadCredentialsException("Invalid PIN");
     }
 
     @Override
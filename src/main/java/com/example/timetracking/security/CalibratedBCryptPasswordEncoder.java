@@ -0,0 +1,69 @@
+package com.example.timetracking.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder whose cost is chosen for the host it runs on. {@link #upgradeEncoding(String)} reports any hash
+ * whose cost differs from the calibrated one, in either direction, so stored hashes converge on it after login and
+ * verify time stays within budget on small kiosk PCs. Calibration never goes below its minimum cost, so neither do
+ * downgrades.
+ */
+@Slf4j
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Pattern COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+    private static final int SAMPLES = 3;
+
+    private final int strength;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        Matcher m = COST.matcher(encodedPassword);
+        return m.find() && Integer.parseInt(m.group(1)) != strength;
+    }
+
+    public static CalibratedBCryptPasswordEncoder calibrate(int minStrength, int maxStrength, Duration verifyBudget) {
+        int chosen = minStrength;
+        for (int s = minStrength; s <= maxStrength; s++) {
+            long nanos = medianVerifyNanos(s);
+            log.info("BCrypt cost {} verifies in {} ms", s, nanos / 1_000_000);
+            if (nanos > verifyBudget.toNanos()) {
+                break;
+            }
+            chosen = s;
+        }
+        log.info("Using BCrypt cost {} (budget {} ms per verify)", chosen, verifyBudget.toMillis());
+        return new CalibratedBCryptPasswordEncoder(chosen);
+    }
+
+    private static long medianVerifyNanos(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        String hash = encoder.encode("calibration");
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.matches("calibration", hash);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
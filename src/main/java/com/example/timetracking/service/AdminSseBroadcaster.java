@@ -1,19 +1,79 @@
 package com.example.timetracking.service;
 
+import com.example.timetracking.model.OutboxEvent;
+import com.example.timetracking.model.OutboxEventType;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.event.TransactionPhase;
-import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.List;
+
+/**
+ * Outbox consumer feeding the admin pages and kiosks. Each event goes out as a "shift" message describing the change,
+ * which the pages apply to what they already show instead of refetching. Kiosks get a slimmer message, on their own
+ * topic, for their location only.
+ */
 @Component
+@Slf4j
 @RequiredArgsConstructor
-public class AdminSseBroadcaster {
+public class AdminSseBroadcaster implements OutboxConsumer {
 
     private final AdminSseService adminSseService;
+    private final OutboxPayloads outboxPayloads;
+
+    @Override
+    public String name() {
+        return "admin-sse";
+    }
+
+    @Override
+    public void accept(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            ShiftChange change;
+            try {
+                change = outboxPayloads.read(event);
+            } catch (IllegalArgumentException ex) {
+                log.warn("Skipping unreadable outbox event {}", event.getId(), ex);
+                continue;
+            }
+            adminSseService.broadcast("shift", ShiftDelta.of(event.getEventType(), change), change.locationId(),
+                AdminSseService.TOPIC_OPEN_SHIFTS, AdminSseService.TOPIC_REPORTS);
+            adminSseService.broadcast("shift", KioskShiftDelta.of(change), change.locationId(),
+                AdminSseService.TOPIC_KIOSK);
+        }
+    }
+
+    /**
+     * {@code clockOutEpochMillis} is null while the shift is open.
+     */
+    public record ShiftDelta(
+        String change,
+        long timeEntryId,
+        long employeeId,
+        String employeeName,
+        long locationId,
+        long clockInEpochMillis,
+        Long clockOutEpochMillis
+    ) {
+        static ShiftDelta of(OutboxEventType type, ShiftChange c) {
+            String change = switch (type) {
+                case SHIFT_OPENED -> "opened";
+                case SHIFT_CLOSED -> "closed";
+                case TIME_ENTRY_EDITED -> "edited";
+            };
+            return new ShiftDelta(change, c.timeEntryId(), c.employeeId(), c.employeeName(), c.locationId(),
+                c.clockInTime().toEpochMilli(), c.clockOutTime() == null ? null : c.clockOutTime().toEpochMilli());
+        }
+    }
 
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-    public void onTimeClockEvent(TimeClockEvent event) {
-        adminSseService.broadcast("open-shifts", "refresh");
-        adminSseService.broadcast("reports", "refresh");
+    /**
+     * What a kiosk needs to update its "currently on shift" list.
+     */
+    public record KioskShiftDelta(long timeEntryId, String employeeName, long clockInEpochMillis, String clockInIso,
+                                  boolean open) {
+        static KioskShiftDelta of(ShiftChange c) {
+            return new KioskShiftDelta(c.timeEntryId(), c.employeeName(), c.clockInTime().toEpochMilli(),
+                c.clockInTime().toString(), c.clockOutTime() == null);
+        }
     }
 }
@@ -1,46 +1,315 @@
 package com.example.timetracking.service;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
+/**
+ * Server-sent events for the admin pages and, on the {@value #TOPIC_KIOSK} topic, for kiosks. Subscribers pick topics
+ * and optionally locations; they are indexed by topic and location so a broadcast only visits interested
+ * subscribers.
+ * <p>
+ * {@link #broadcast} only queues: each subscriber has a bounded outbound queue drained by the sender pool, one send
+ * at a time, so a slow browser never holds up the caller or the other subscribers. An event identical to one still
+ * waiting in a queue is dropped. A subscriber whose queue overflows, or whose send is stuck past the timeout, is
+ * disconnected; the browser's EventSource reconnects on its own.
+ * <p>
+ * Broadcast events carry increasing ids and the most recent ones are kept in a replay buffer. A reconnect whose
+ * {@code Last-Event-ID} is still covered gets the missed events followed by "resumed"; otherwise it gets
+ * "connected" and is expected to reload its data. Ids start from the boot time, so an id from before a restart is
+ * never mistaken for a current one. A periodic heartbeat comment finds connections that died without closing.
+ */
 @Service
 @Slf4j
 public class AdminSseService {
 
-    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    public static final String TOPIC_OPEN_SHIFTS = "open-shifts";
+    public static final String TOPIC_REPORTS = "reports";
+    public static final String TOPIC_KIOSK = "kiosk";
+    public static final Set<String> ADMIN_TOPICS = Set.of(TOPIC_OPEN_SHIFTS, TOPIC_REPORTS);
+    public static final Set<String> TOPICS = Set.of(TOPIC_OPEN_SHIFTS, TOPIC_REPORTS, TOPIC_KIOSK);
 
-    public SseEmitter subscribe() {
-        SseEmitter emitter = new SseEmitter(0L);
-        emitters.add(emitter);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<String, TopicIndex> index = TOPICS.stream()
+        .collect(Collectors.toUnmodifiableMap(topic -> topic, topic -> new TopicIndex()));
+    private final ExecutorService senders;
+    private final int queueCapacity;
+    private final long sendTimeoutNanos;
+    private final int replayCapacity;
 
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> emitters.remove(emitter));
-        emitter.onError((ex) -> emitters.remove(emitter));
+    // Guarded by itself. Broadcasts and subscriptions both hold it, so a resuming subscriber neither misses an event
+    // nor gets one twice.
+    private final ArrayDeque<Recorded> replay = new ArrayDeque<>();
+    private long lastEventId = System.currentTimeMillis() * 1000;
 
-        try {
-            emitter.send(SseEmitter.event().name("connected").data("ok"));
-        } catch (IOException e) {
-            emitters.remove(emitter);
+    public AdminSseService(@Value("${app.sse.sender-threads:4}") int senderThreads,
+                           @Value("${app.sse.queue-capacity:64}") int queueCapacity,
+                           @Value("${app.sse.send-timeout-millis:10000}") long sendTimeoutMillis,
+                           @Value("${app.sse.replay-capacity:1000}") int replayCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread t = new Thread(r, "sse-sender-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.queueCapacity = queueCapacity;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.replayCapacity = replayCapacity;
+    }
+
+    /**
+     * @param topics      topics to receive, from {@link #TOPICS}
+     * @param locationIds locations to receive events for; empty means all
+     * @param resumeAfter the client's {@code Last-Event-ID}, or null
+     */
+    public SseEmitter subscribe(Set<String> topics, Set<Long> locationIds, Long resumeAfter) {
+        if (topics.isEmpty() || !TOPICS.containsAll(topics)) {
+            throw new IllegalArgumentException("Unknown topic: " + topics);
         }
 
+        SseEmitter emitter = newEmitter();
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(topics), Set.copyOf(locationIds));
+
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError((ex) -> unregister(subscriber));
+
+        synchronized (replay) {
+            List<Outbound> missed = resumeAfter == null ? null : missedSince(resumeAfter, subscriber);
+            register(subscriber);
+            if (missed == null) {
+                subscriber.offer(new Outbound(null, "connected", "ok"));
+            } else {
+                missed.forEach(subscriber::offer);
+                subscriber.offer(new Outbound(null, "resumed", "ok"));
+            }
+        }
         return emitter;
     }
 
-    public void broadcast(String eventName, Object data) {
-        for (SseEmitter emitter : emitters) {
-            try {
-                emitter.send(SseEmitter.event().name(eventName).data(data));
-            } catch (Exception ex) {
-                emitters.remove(emitter);
+    // No timeout: connections end when the browser goes away or a send fails. Overridden in tests.
+    SseEmitter newEmitter() {
+        return new SseEmitter(0L);
+    }
+
+    /**
+     * Queues the event once for every subscriber to any of the topics that follows the location.
+     */
+    public void broadcast(String eventName, Object data, long locationId, String... topics) {
+        synchronized (replay) {
+            Outbound event = new Outbound(++lastEventId, eventName, data);
+            replay.addLast(new Recorded(event, locationId, Set.of(topics)));
+            if (replay.size() > replayCapacity) {
+                replay.removeFirst();
+            }
+
+            Set<Subscriber> targets = new HashSet<>();
+            for (String topic : topics) {
+                TopicIndex topicIndex = index.get(topic);
+                targets.addAll(topicIndex.allLocations);
+                Set<Subscriber> atLocation = topicIndex.byLocation.get(locationId);
+                if (atLocation != null) {
+                    targets.addAll(atLocation);
+                }
+            }
+            for (Subscriber subscriber : targets) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Sends a comment to every subscriber; a connection that died without closing fails the send and is dropped.
+     */
+    @Scheduled(fixedDelayString = "${app.sse.heartbeat-interval-millis:15000}")
+    public void heartbeat() {
+        Outbound heartbeat = new Outbound(null, null, "heartbeat");
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(heartbeat);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.sse.stuck-check-interval-millis:5000}")
+    public void disconnectStuckSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.sendingSince;
+            if (since != 0 && now - since > sendTimeoutNanos) {
+                subscriber.disconnect("send timed out");
+            }
+        }
+    }
+
+    // Null when the buffer no longer reaches back to the id (or the id is from before a restart), or when the
+    // catch-up would not fit in the subscriber's queue.
+    private List<Outbound> missedSince(long resumeAfter, Subscriber subscriber) {
+        long oldestRetained = replay.isEmpty() ? lastEventId + 1 : replay.peekFirst().event().id();
+        if (resumeAfter < oldestRetained - 1 || resumeAfter > lastEventId) {
+            return null;
+        }
+        List<Outbound> missed = new ArrayList<>();
+        for (Recorded recorded : replay) {
+            if (recorded.event().id() > resumeAfter && subscriber.follows(recorded)) {
+                missed.add(recorded.event());
+            }
+        }
+        return missed.size() < queueCapacity ? missed : null;
+    }
+
+    private void register(Subscriber subscriber) {
+        subscribers.add(subscriber);
+        for (String topic : subscriber.topics) {
+            TopicIndex topicIndex = index.get(topic);
+            if (subscriber.locationIds.isEmpty()) {
+                topicIndex.allLocations.add(subscriber);
+            }
+            for (Long locationId : subscriber.locationIds) {
+                topicIndex.byLocation.compute(locationId, (id, set) -> {
+                    Set<Subscriber> s = set == null ? ConcurrentHashMap.newKeySet() : set;
+                    s.add(subscriber);
+                    return s;
+                });
+            }
+        }
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        for (String topic : subscriber.topics) {
+            TopicIndex topicIndex = index.get(topic);
+            topicIndex.allLocations.remove(subscriber);
+            for (Long locationId : subscriber.locationIds) {
+                topicIndex.byLocation.computeIfPresent(locationId, (id, set) -> {
+                    set.remove(subscriber);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * A queued message. {@code id} is null for control messages; {@code name} is null for a comment.
+     */
+    private record Outbound(Long id, String name, Object data) {
+
+        boolean sameAs(Outbound other) {
+            return Objects.equals(name, other.name) && Objects.equals(data, other.data);
+        }
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (name == null) {
+                return SseEmitter.event().comment(String.valueOf(data));
+            }
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(name).data(data);
+            return id == null ? event : event.id(String.valueOf(id));
+        }
+    }
+
+    private record Recorded(Outbound event, long locationId, Set<String> topics) {}
+
+    private static final class TopicIndex {
+        private final Set<Subscriber> allLocations = ConcurrentHashMap.newKeySet();
+        private final Map<Long, Set<Subscriber>> byLocation = new ConcurrentHashMap<>();
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<String> topics;
+        private final Set<Long> locationIds;
+        private final ArrayDeque<Outbound> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+        private volatile long sendingSince;
+
+        private Subscriber(SseEmitter emitter, Set<String> topics, Set<Long> locationIds) {
+            this.emitter = emitter;
+            this.topics = topics;
+            this.locationIds = locationIds;
+        }
+
+        boolean follows(Recorded recorded) {
+            return (locationIds.isEmpty() || locationIds.contains(recorded.locationId()))
+                && !Collections.disjoint(topics, recorded.topics());
+        }
+
+        void offer(Outbound event) {
+            synchronized (this) {
+                if (closed || queue.stream().anyMatch(event::sameAs)) {
+                    return;
+                }
+                if (queue.size() >= queueCapacity) {
+                    disconnect("queue full");
+                    return;
+                }
+                queue.add(event);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                Outbound next;
+                synchronized (this) {
+                    next = closed ? null : queue.poll();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                sendingSince = System.nanoTime();
                 try {
-                    emitter.complete();
-                } catch (Exception ignored) {
+                    emitter.send(next.toEvent());
+                } catch (Exception ex) {
+                    disconnect("send failed");
+                } finally {
+                    sendingSince = 0;
+                }
+            }
+        }
+
+        void disconnect(String reason) {
+            synchronized (this) {
+                if (closed) {
+                    return;
                 }
+                closed = true;
+                queue.clear();
+            }
+            unregister(this);
+            log.debug("Disconnecting SSE subscriber: {}", reason);
+            try {
+                emitter.complete();
+            } catch (Exception ignored) {
             }
         }
     }
@@ -0,0 +1,169 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.ClockRequest;
+import com.example.timetracking.repo.ClockRequestRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of each clock request by its idempotency key, so a double-tap or a retried POST gets the
+ * original result (or error) instead of punching again. A duplicate that arrives while the first is still running
+ * waits for it. "Busy" rejections are not remembered, since retrying those is the point.
+ * <p>
+ * Successful outcomes are also stored in {@code clock_requests} by {@link #record}, inside the punch's transaction,
+ * so a retry that a load balancer sends to another node is answered from there. Failures are only remembered on the
+ * node that saw them; a retry elsewhere runs again and meets the same check (already clocked in, no open shift).
+ */
+@Component
+public class ClockRequestLedger {
+
+    private final ClockRequestRepository clockRequestRepository;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final long waitMillis;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    public ClockRequestLedger(ClockRequestRepository clockRequestRepository,
+                              ObjectMapper objectMapper,
+                              Clock clock,
+                              @Value("${app.clock.idempotency-ttl-seconds:600}") long ttlSeconds,
+                              @Value("${app.clock.idempotency-max-entries:10000}") int maxEntries,
+                              @Value("${app.clock.idempotency-wait-millis:10000}") long waitMillis) {
+        this.clockRequestRepository = clockRequestRepository;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.maxEntries = maxEntries;
+        this.waitMillis = waitMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Class<T> type, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+
+        Entry entry;
+        boolean first;
+        synchronized (this) {
+            expire();
+            entry = entries.get(key);
+            first = entry == null;
+            if (first) {
+                entry = new Entry(new CompletableFuture<>(), Instant.now(clock).plus(ttl));
+                entries.put(key, entry);
+            }
+        }
+
+        if (first) {
+            try {
+                T result = findRecorded(key, type).orElseGet(action);
+                entry.outcome().complete(result);
+                return result;
+            } catch (RuntimeException ex) {
+                // The same request may have committed on another node meanwhile, making this attempt fail.
+                Optional<T> recorded = findRecorded(key, type);
+                if (recorded.isPresent()) {
+                    entry.outcome().complete(recorded.get());
+                    return recorded.get();
+                }
+                if (ex instanceof PinVerificationBusyException) {
+                    forget(key, entry);
+                }
+                entry.outcome().completeExceptionally(ex);
+                throw ex;
+            }
+        }
+
+        try {
+            return (T) entry.outcome().get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("Your previous request is still being processed. Please wait.");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Request interrupted.");
+        }
+    }
+
+    /**
+     * Stores the outcome of a successful request; must run in the transaction that made the change, so the outcome
+     * exists exactly when the punch committed. Returns {@code result} for chaining.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> T record(String key, T result) {
+        if (key != null) {
+            clockRequestRepository.insert(key, write(result), Instant.now(clock));
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${app.clock.idempotency-cleanup-interval-millis:600000}")
+    @Transactional
+    public void purgeExpired() {
+        clockRequestRepository.deleteCreatedBefore(Instant.now(clock).minus(ttl));
+    }
+
+    private <T> Optional<T> findRecorded(String key, Class<T> type) {
+        return clockRequestRepository.findByRequestKeyAndCreatedAtAfter(key, Instant.now(clock).minus(ttl))
+            .map(request -> read(request, type));
+    }
+
+    private String write(Object result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize clock request outcome", ex);
+        }
+    }
+
+    private <T> T read(ClockRequest request, Class<T> type) {
+        try {
+            return objectMapper.readValue(request.getOutcome(), type);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable clock request outcome " + request.getRequestKey(), ex);
+        }
+    }
+
+    private synchronized void forget(String key, Entry entry) {
+        entries.remove(key, entry);
+    }
+
+    private void expire() {
+        Instant now = Instant.now(clock);
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry e = it.next();
+            if (entries.size() < maxEntries && now.isBefore(e.expiresAt())) {
+                break;
+            }
+            it.remove();
+        }
+    }
+
+    private record Entry(CompletableFuture<Object> outcome, Instant expiresAt) {}
+}
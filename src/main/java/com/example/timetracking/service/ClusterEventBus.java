@@ -0,0 +1,16 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.OutboxEventType;
+
+/**
+ * Carries clock and edit events to every app node, so realtime views stay correct behind a load balancer without
+ * sticky sessions. Events are published inside the transaction that makes the change and reach each node's
+ * {@link OutboxConsumer}s after commit, at least once and in id order.
+ * <p>
+ * The implementation in use is the database outbox ({@link OutboxService} writing, {@link OutboxRelay} polling
+ * with a cursor per node), which needs nothing beyond the shared database.
+ */
+public interface ClusterEventBus {
+
+    void publish(OutboxEventType type, ShiftChange change);
+}
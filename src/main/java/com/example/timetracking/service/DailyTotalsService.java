@@ -0,0 +1,57 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.EmployeeDailyTotal;
+import com.example.timetracking.repo.EmployeeDailyTotalRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Running per-employee, per-day totals of completed shifts, so "hours today" is a primary-key read instead of a
+ * range scan. A shift counts toward the UTC day it started on, matching the reports.
+ */
+@Service
+@RequiredArgsConstructor
+public class DailyTotalsService {
+
+    private final EmployeeDailyTotalRepository employeeDailyTotalRepository;
+
+    @Transactional
+    public void recordShift(long employeeId, Instant clockIn, Instant clockOut) {
+        add(employeeId, clockIn, clockOut, 1);
+    }
+
+    /**
+     * Moves an edited entry's contribution from its old times to its new ones. Open shifts contribute nothing.
+     */
+    @Transactional
+    public void reviseShift(long employeeId, Instant oldIn, Instant oldOut, Instant newIn, Instant newOut) {
+        add(employeeId, oldIn, oldOut, -1);
+        add(employeeId, newIn, newOut, 1);
+    }
+
+    public Duration completedOn(long employeeId, LocalDate day) {
+        return employeeDailyTotalRepository.findById(new EmployeeDailyTotal.Key(employeeId, day))
+            .map(t -> Duration.ofSeconds(t.getWorkedSeconds()))
+            .orElse(Duration.ZERO);
+    }
+
+    public static LocalDate dayOf(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC).toLocalDate();
+    }
+
+    private void add(long employeeId, Instant clockIn, Instant clockOut, int sign) {
+        if (clockIn == null || clockOut == null) {
+            return;
+        }
+        long seconds = sign * Duration.between(clockIn, clockOut).getSeconds();
+        if (seconds != 0) {
+            employeeDailyTotalRepository.addSeconds(employeeId, dayOf(clockIn), seconds);
+        }
+    }
+}
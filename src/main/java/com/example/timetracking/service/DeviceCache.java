@@ -0,0 +1,118 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.Device;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Device cookie UUID -> device (with its location loaded). Unknown UUIDs are remembered in a separate, smaller map
+ * with a shorter TTL so random cookies cannot turn every kiosk request into a query, nor push real devices out.
+ */
+@Component
+public class DeviceCache {
+
+    private final Clock clock;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final Map<String, Entry> devices;
+    private final Map<String, Instant> unknown;
+    private long generation;
+
+    public DeviceCache(Clock clock,
+                       @Value("${app.device.cache-ttl-seconds:300}") long ttlSeconds,
+                       @Value("${app.device.cache-negative-ttl-seconds:30}") long negativeTtlSeconds,
+                       @Value("${app.device.cache-max-entries:1000}") int maxEntries,
+                       @Value("${app.device.cache-negative-max-entries:200}") int negativeMaxEntries) {
+        this.clock = clock;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.negativeTtl = Duration.ofSeconds(negativeTtlSeconds);
+        this.devices = lru(maxEntries);
+        this.unknown = lru(negativeMaxEntries);
+    }
+
+    /**
+     * Returns the device for the UUID, calling {@code loader} on a miss and caching what it returns. The load runs
+     * outside the lock; its result is not cached if the UUID was evicted meanwhile, so a stale read cannot
+     * outlive a registration change.
+     */
+    public Optional<Device> get(String deviceUuid, Function<String, Optional<Device>> loader) {
+        long loadedAtGeneration;
+        synchronized (this) {
+            Instant now = Instant.now(clock);
+            Entry e = devices.get(deviceUuid);
+            if (e != null) {
+                if (now.isBefore(e.expiresAt())) {
+                    return Optional.of(e.device());
+                }
+                devices.remove(deviceUuid);
+            }
+            Instant unknownUntil = unknown.get(deviceUuid);
+            if (unknownUntil != null) {
+                if (now.isBefore(unknownUntil)) {
+                    return Optional.empty();
+                }
+                unknown.remove(deviceUuid);
+            }
+            loadedAtGeneration = generation;
+        }
+
+        Optional<Device> device = loader.apply(deviceUuid);
+        put(deviceUuid, device, loadedAtGeneration);
+        return device;
+    }
+
+    private synchronized void put(String deviceUuid, Optional<Device> device, long loadedAtGeneration) {
+        Duration entryTtl = device.isPresent() ? ttl : negativeTtl;
+        if (loadedAtGeneration != generation || entryTtl.isZero() || entryTtl.isNegative()) {
+            return;
+        }
+        Instant expiresAt = Instant.now(clock).plus(entryTtl);
+        if (device.isPresent()) {
+            devices.put(deviceUuid, new Entry(device.get(), expiresAt));
+        } else {
+            unknown.put(deviceUuid, expiresAt);
+        }
+    }
+
+    /**
+     * Drops the UUID now and, when called inside a transaction, again after it commits.
+     */
+    public void evict(String deviceUuid) {
+        remove(deviceUuid);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(deviceUuid);
+                }
+            });
+        }
+    }
+
+    private synchronized void remove(String deviceUuid) {
+        generation++;
+        devices.remove(deviceUuid);
+        unknown.remove(deviceUuid);
+    }
+
+    private static <V> Map<String, V> lru(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private record Entry(Device device, Instant expiresAt) {}
+}
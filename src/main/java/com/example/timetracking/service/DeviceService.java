@@ -17,11 +17,11 @@ public class DeviceService {
 
     private final DeviceRepository deviceRepository;
     private final LocationRepository locationRepository;
+    private final DeviceCache deviceCache;
     private final Clock clock;
 
-    @Transactional(readOnly = true)
     public Device requireActiveRegisteredDevice(String deviceUuid) {
-        return deviceRepository.findByDeviceUuidWithLocation(deviceUuid)
+        return deviceCache.get(deviceUuid, deviceRepository::findByDeviceUuidWithLocation)
             .filter(Device::isActive)
             .orElseThrow(() -> new IllegalStateException("This computer is not registered.") );
     }
@@ -30,6 +30,7 @@ public class DeviceService {
     public Device registerDeviceToLocation(String deviceUuid, long locationId, String computerName) {
         Location location = locationRepository.findById(locationId)
             .orElseThrow(() -> new IllegalArgumentException("Location not found"));
+        deviceCache.evict(deviceUuid);
 
         return deviceRepository.findByDeviceUuid(deviceUuid)
             .map(existing -> {
@@ -49,4 +50,13 @@ public class DeviceService {
                 return deviceRepository.save(device);
             });
     }
+
+    @Transactional
+    public Device toggleActive(long deviceId) {
+        Device device = deviceRepository.findById(deviceId)
+            .orElseThrow(() -> new IllegalArgumentException("Device not found"));
+        device.setActive(!device.isActive());
+        deviceCache.evict(device.getDeviceUuid());
+        return device;
+    }
 }
@@ -0,0 +1,219 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.Employee;
+import com.example.timetracking.model.EmployeeRole;
+import com.example.timetracking.repo.EmployeeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * In-memory employee directory for the admin pages: every employee sorted by name, plus a prefix index over the
+ * words of each name, so searching and paging never query the database. Employees are paged by keyset (name, id):
+ * a page continues after the last employee of the previous one.
+ * <p>
+ * Loaded once the app is ready, then kept in step with creates and activations on this node. Changes made on another
+ * node show up at the next full reload, every {@code app.employees.directory-refresh-millis}.
+ * <p>
+ * The indexes are never changed in place: reloads and tracked changes build new ones and swap them in, so a search
+ * always sees one complete directory. Admin edits are rare enough that copying the directory for each is cheap.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class EmployeeDirectory {
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final Comparator<Entry> BY_NAME =
+        Comparator.comparing(Entry::sortName).thenComparingLong(Entry::id);
+    private static final Comparator<Word> BY_WORD =
+        Comparator.comparing(Word::word).thenComparingLong(Word::employeeId);
+
+    private final EmployeeRepository employeeRepository;
+
+    private volatile Index index = new Index(Map.of());
+
+    // Guarded by this. Non-null while a reload is reading, so changes committed meanwhile are applied on top of it.
+    private Map<Long, Entry> trackedDuringReload;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.employees.directory-refresh-millis:300000}",
+        initialDelayString = "${app.employees.directory-refresh-millis:300000}")
+    public void reload() {
+        synchronized (this) {
+            trackedDuringReload = new HashMap<>();
+        }
+        Map<Long, Entry> entries = new HashMap<>();
+        try {
+            employeeRepository.findAll().forEach(e -> entries.put(e.getId(), Entry.of(e)));
+        } finally {
+            synchronized (this) {
+                entries.putAll(trackedDuringReload);
+                trackedDuringReload = null;
+            }
+        }
+        synchronized (this) {
+            index = new Index(entries);
+        }
+        log.debug("Loaded {} employee(s) into the directory", entries.size());
+    }
+
+    /**
+     * Records the employee's current name, role and status once the surrounding transaction commits.
+     */
+    public void track(Employee employee) {
+        Entry entry = Entry.of(employee);
+        afterCommit(() -> {
+            synchronized (this) {
+                if (trackedDuringReload != null) {
+                    trackedDuringReload.put(entry.id(), entry);
+                }
+                Map<Long, Entry> entries = new HashMap<>(index.byId());
+                entries.put(entry.id(), entry);
+                index = new Index(entries);
+            }
+        });
+    }
+
+    /**
+     * @param query words that must each start a word of the name (any order), or an employee id; blank for everyone
+     * @param role  null for any role
+     * @param active null for active and inactive
+     * @param after id of the last employee on the previous page, or null for the first page
+     */
+    public Page search(String query, EmployeeRole role, Boolean active, Long after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        Index index = this.index;
+        Entry cursor = null;
+        if (after != null) {
+            cursor = index.byId().get(after);
+            if (cursor == null) {
+                throw new IllegalArgumentException("Unknown employee " + after + " to page after.");
+            }
+        }
+
+        List<String> terms = wordsOf(query);
+        Long id = terms.size() == 1 && isId(terms.get(0)) ? Long.valueOf(terms.get(0)) : null;
+        NavigableSet<Entry> candidates = index.byName();
+        if (!terms.isEmpty()) {
+            candidates = index.byPrefix(terms.get(0));
+            if (id != null && index.byId().containsKey(id)) {
+                candidates.add(index.byId().get(id));
+            }
+        }
+        if (cursor != null) {
+            candidates = candidates.tailSet(cursor, false);
+        }
+        Predicate<Entry> matches = e -> (role == null || e.role() == role)
+            && (active == null || e.active() == active)
+            && (Long.valueOf(e.id()).equals(id)
+                || terms.stream().allMatch(term -> e.words().stream().anyMatch(w -> w.startsWith(term))));
+
+        List<Entry> rows = new ArrayList<>(limit + 1);
+        for (Entry e : candidates) {
+            if (matches.test(e)) {
+                rows.add(e);
+                if (rows.size() > limit) {
+                    break;
+                }
+            }
+        }
+        if (rows.size() > limit) {
+            rows.remove(limit);
+            return new Page(rows, rows.get(limit - 1).id());
+        }
+        return new Page(rows, null);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static boolean isId(String term) {
+        return term.length() <= 18 && term.chars().allMatch(Character::isDigit);
+    }
+
+    private static List<String> wordsOf(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).trim().split("\\s+")).distinct().toList();
+    }
+
+    public record Entry(long id, String fullName, EmployeeRole role, boolean active, String sortName,
+                        List<String> words) {
+        static Entry of(Employee e) {
+            String name = e.getFullName() == null ? "" : e.getFullName();
+            return new Entry(e.getId(), name, e.getRole(), e.isActive(), name.toLowerCase(Locale.ROOT), wordsOf(name));
+        }
+    }
+
+    /**
+     * {@code nextAfter} is the value to pass as {@code after} for the next page; null on the last page.
+     */
+    public record Page(List<Entry> rows, Long nextAfter) {}
+
+    private record Word(String word, long employeeId) {}
+
+    /**
+     * One immutable snapshot of the directory.
+     */
+    private record Index(Map<Long, Entry> byId, NavigableSet<Entry> byName, NavigableSet<Word> words) {
+
+        Index(Map<Long, Entry> entries) {
+            this(Map.copyOf(entries), sortedByName(entries), wordIndex(entries));
+        }
+
+        NavigableSet<Entry> byPrefix(String prefix) {
+            NavigableSet<Entry> entries = new TreeSet<>(BY_NAME);
+            for (Word w : words.subSet(new Word(prefix, Long.MIN_VALUE), new Word(prefix + Character.MAX_VALUE, Long.MIN_VALUE))) {
+                Entry e = byId.get(w.employeeId());
+                if (e != null) {
+                    entries.add(e);
+                }
+            }
+            return entries;
+        }
+
+        private static NavigableSet<Entry> sortedByName(Map<Long, Entry> entries) {
+            TreeSet<Entry> byName = new TreeSet<>(BY_NAME);
+            byName.addAll(entries.values());
+            return Collections.unmodifiableNavigableSet(byName);
+        }
+
+        private static NavigableSet<Word> wordIndex(Map<Long, Entry> entries) {
+            TreeSet<Word> words = new TreeSet<>(BY_WORD);
+            entries.values().forEach(e -> e.words().forEach(w -> words.add(new Word(w, e.id()))));
+            return Collections.unmodifiableNavigableSet(words);
+        }
+    }
+}
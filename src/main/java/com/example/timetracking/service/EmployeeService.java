@@ -4,43 +4,143 @@ import com.example.timetracking.model.Employee;
 import com.example.timetracking.model.EmployeeRole;
 import com.example.timetracking.repo.EmployeeRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class EmployeeService {
 
+    static final String PIN_LOOKUP_INDEX = "uk_employees_pin_lookup";
+
     private final EmployeeRepository employeeRepository;
     private final PinService pinService;
+    private final VerifiedPinCache verifiedPinCache;
+    private final EmployeeDirectory employeeDirectory;
+    private final TransactionTemplate transactionTemplate;
     private final Clock clock;
 
-    @Transactional
+    @Value("${app.pin.issue-max-attempts:50}")
+    private int issueMaxAttempts;
+
     public CreatedEmployee createEmployee(String fullName, EmployeeRole role) {
-        String pin = pinService.generatePin();
+        return withUniquePin(issued -> {
+            Employee e = new Employee();
+            e.setFullName(fullName);
+            e.setRole(role);
+            e.setActive(true);
+            e.setCreatedAt(Instant.now(clock));
+            e.setPinHash(pinService.hashPin(issued.pin()));
+            e.setPinLookup(issued.lookupKey());
 
-        Employee e = new Employee();
-        e.setFullName(fullName);
-        e.setRole(role);
-        e.setActive(true);
-        e.setCreatedAt(Instant.now(clock));
-        e.setPinHash(pinService.hashPin(pin));
+            employeeRepository.saveAndFlush(e);
+            employeeDirectory.track(e);
+            return new CreatedEmployee(e, issued.pin());
+        });
+    }
 
-        employeeRepository.save(e);
-        return new CreatedEmployee(e, pin);
+    public String resetPin(long employeeId) {
+        return withUniquePin(issued -> {
+            Employee e = employeeRepository.findById(employeeId)
+                .orElseThrow(() -> new IllegalArgumentException("Employee not found"));
+            e.setPinHash(pinService.hashPin(issued.pin()));
+            e.setPinLookup(issued.lookupKey());
+            e.setPinReissueRequired(false);
+            employeeRepository.saveAndFlush(e);
+            verifiedPinCache.evictEmployee(employeeId);
+            return issued.pin();
+        });
     }
 
+    /**
+     * Gives every employee flagged as sharing a PIN a fresh unique one, each in its own transaction so one lost
+     * race does not undo the PINs already handed out.
+     */
+    public List<ReissuedPin> reissueCollidingPins() {
+        List<ReissuedPin> reissued = new ArrayList<>();
+        for (Employee flagged : employeeRepository.findAllByPinReissueRequiredIsTrue()) {
+            ReissuedPin pin = withUniquePin(issued -> {
+                Employee e = employeeRepository.findById(flagged.getId()).orElse(null);
+                if (e == null || !e.isPinReissueRequired()) {
+                    return null;
+                }
+                e.setPinHash(pinService.hashPin(issued.pin()));
+                e.setPinLookup(issued.lookupKey());
+                e.setPinReissueRequired(false);
+                employeeRepository.saveAndFlush(e);
+                verifiedPinCache.evictEmployee(e.getId());
+                return new ReissuedPin(e.getId(), e.getFullName(), issued.pin());
+            });
+            if (pin != null) {
+                reissued.add(pin);
+            }
+        }
+        return reissued;
+    }
+
+    /**
+     * Takes a lookup key away from whoever holds it (other than {@code keepId}) and flags them for a new PIN.
+     * Used when a PIN is set from configuration rather than issued.
+     */
     @Transactional
-    public String resetPin(long employeeId) {
+    public int releasePinLookup(String lookupKey, long keepId) {
+        int released = employeeRepository.releasePinLookup(lookupKey, keepId);
+        verifiedPinCache.evictKey(lookupKey);
+        return released;
+    }
+
+    @Transactional
+    public Employee toggleActive(long employeeId) {
         Employee e = employeeRepository.findById(employeeId)
             .orElseThrow(() -> new IllegalArgumentException("Employee not found"));
-        String pin = pinService.generatePin();
-        e.setPinHash(pinService.hashPin(pin));
-        return pin;
+        e.setActive(!e.isActive());
+        verifiedPinCache.evictEmployee(employeeId);
+        employeeDirectory.track(e);
+        return e;
+    }
+
+    /**
+     * Runs {@code write} in a transaction with a PIN no one holds. The existence check only makes a clash unlikely;
+     * the unique index decides, and when a concurrent writer takes the same key first the write is retried with a
+     * fresh PIN.
+     */
+    private <T> T withUniquePin(Function<IssuedPin, T> write) {
+        for (int attempt = 0; attempt < issueMaxAttempts; attempt++) {
+            String pin = pinService.generatePin();
+            String lookupKey = pinService.lookupKey(pin);
+            if (employeeRepository.existsByPinLookup(lookupKey)) {
+                continue;
+            }
+            try {
+                return transactionTemplate.execute(status -> write.apply(new IssuedPin(pin, lookupKey)));
+            } catch (DataIntegrityViolationException ex) {
+                if (!isPinLookupConflict(ex)) {
+                    throw ex;
+                }
+            }
+        }
+        throw new IllegalStateException("Could not issue a unique PIN. Consider increasing app.pin.length-max.");
     }
 
+    static boolean isPinLookupConflict(DataIntegrityViolationException ex) {
+        String message = NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(PIN_LOOKUP_INDEX);
+    }
+
+    private record IssuedPin(String pin, String lookupKey) {}
+
     public record CreatedEmployee(Employee employee, String rawPin) {}
+
+    public record ReissuedPin(long employeeId, String fullName, String rawPin) {}
 }
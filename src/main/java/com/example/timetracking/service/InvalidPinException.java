@@ -0,0 +1,11 @@
+package com.example.timetracking.service;
+
+/**
+ * The PIN matched no active employee. The only clock error that counts as a failed attempt.
+ */
+public class InvalidPinException extends IllegalStateException {
+
+    public InvalidPinException() {
+        super("Invalid PIN");
+    }
+}
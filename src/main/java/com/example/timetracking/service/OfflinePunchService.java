@@ -0,0 +1,240 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.Device;
+import com.example.timetracking.model.Employee;
+import com.example.timetracking.model.OutboxEventType;
+import com.example.timetracking.model.TimeEntry;
+import com.example.timetracking.repo.DeviceRepository;
+import com.example.timetracking.repo.TimeEntryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Applies punches a kiosk queued while offline. Each punch carries the kiosk's clock reading and a per-device
+ * sequence number; the batch's send time is compared with the server clock to correct for kiosk clock skew.
+ * <p>
+ * PINs are verified first (outside any transaction, subject to the attempt limiter), then the batch is applied in
+ * sequence order in one transaction holding the device row lock. Punches at or below the device's last applied
+ * sequence are answered as duplicates, so re-sending a batch is harmless. A punch that cannot be verified yet (pool
+ * busy, attempts locked) is deferred together with everything after it, keeping order.
+ */
+@Service
+@RequiredArgsConstructor
+public class OfflinePunchService {
+
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+
+    private final PinVerificationService pinVerificationService;
+    private final PinAttemptService pinAttemptService;
+    private final TimeEntryRepository timeEntryRepository;
+    private final DeviceRepository deviceRepository;
+    private final OpenShiftRegistry openShiftRegistry;
+    private final DailyTotalsService dailyTotalsService;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterEventBus clusterEventBus;
+    private final Clock clock;
+
+    @Value("${app.clock.offline-max-batch:500}")
+    private int maxBatch;
+
+    @Value("${app.clock.offline-max-age-hours:72}")
+    private long maxAgeHours;
+
+    public BatchResult apply(Device device, String deviceKey, String clientIp,
+                             Instant deviceSentAt, List<QueuedPunch> punches) {
+        if (punches.size() > maxBatch) {
+            throw new IllegalArgumentException("Batch too large (max " + maxBatch + " punches).");
+        }
+
+        for (QueuedPunch punch : punches) {
+            if (punch.action() == null || punch.deviceTime() == null) {
+                throw new IllegalArgumentException("Punch " + punch.sequence() + " is missing its action or time.");
+            }
+            if (punch.sequence() <= 0 || !punch.deviceTime().isAfter(Instant.EPOCH)) {
+                throw new IllegalArgumentException("Punch " + punch.sequence() + " has an invalid sequence or time.");
+            }
+        }
+
+        Instant now = Instant.now(clock);
+        Duration skew = Duration.between(deviceSentAt, now);
+        List<QueuedPunch> ordered = punches.stream().sorted(Comparator.comparingLong(QueuedPunch::sequence)).toList();
+
+        List<Verified> verified = new ArrayList<>();
+        List<PunchOutcome> duplicates = new ArrayList<>();
+        List<PunchOutcome> deferred = new ArrayList<>();
+        Instant previous = Instant.MIN;
+        long alreadyApplied = deviceRepository.findById(device.getId())
+            .map(Device::getLastPunchSequence)
+            .orElseThrow(() -> new IllegalStateException("This computer is not registered."));
+        for (QueuedPunch punch : ordered) {
+            if (punch.sequence() <= alreadyApplied) {
+                duplicates.add(PunchOutcome.duplicate(punch.sequence()));
+                continue;
+            }
+            if (!deferred.isEmpty()) {
+                deferred.add(PunchOutcome.deferred(punch.sequence(), "Waiting for an earlier punch."));
+                continue;
+            }
+
+            Instant at = punch.deviceTime().plus(skew);
+            if (at.isAfter(now)) {
+                at = now;
+            }
+            if (at.isBefore(previous)) {
+                at = previous;
+            }
+            previous = at;
+
+            try {
+                pinAttemptService.checkAllowed(deviceKey, clientIp);
+                Optional<Employee> employee = punch.pin() == null || punch.pin().isBlank()
+                    ? Optional.empty()
+                    : pinVerificationService.findActiveEmployee(punch.pin());
+                if (employee.isPresent()) {
+                    pinAttemptService.recordSuccess(deviceKey, clientIp);
+                } else {
+                    pinAttemptService.recordFailure(deviceKey, clientIp);
+                }
+                verified.add(new Verified(punch, at, employee.orElse(null)));
+            } catch (RuntimeException ex) {
+                // Busy pool or locked-out device: retry this punch and the rest on the next flush.
+                deferred.add(PunchOutcome.deferred(punch.sequence(), ex.getMessage()));
+            }
+        }
+
+        if (verified.isEmpty()) {
+            List<PunchOutcome> outcomes = new ArrayList<>(duplicates);
+            outcomes.addAll(deferred);
+            return new BatchResult(alreadyApplied, outcomes);
+        }
+        BatchResult applied = applyBatch(device, now, verified);
+        List<PunchOutcome> outcomes = new ArrayList<>(duplicates);
+        outcomes.addAll(applied.outcomes());
+        outcomes.addAll(deferred);
+        return new BatchResult(applied.lastSequence(), outcomes);
+    }
+
+    /**
+     * Each clock-in checks for an open shift first, but can still lose a race with an online punch for the same
+     * employee that commits between the check and the insert. The batch is then rolled back and applied again; the
+     * retry's check sees the winner and rejects just that punch.
+     */
+    private BatchResult applyBatch(Device device, Instant now, List<Verified> verified) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> applyInOrder(device, now, verified));
+            } catch (DataIntegrityViolationException ex) {
+                if (attempt >= MAX_BATCH_ATTEMPTS || !TimeClockService.isOpenShiftConflict(ex)) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private BatchResult applyInOrder(Device device, Instant now, List<Verified> verified) {
+        Device locked = deviceRepository.findByIdForUpdate(device.getId())
+            .orElseThrow(() -> new IllegalStateException("This computer is not registered."));
+        Instant oldest = now.minus(Duration.ofHours(maxAgeHours));
+
+        List<PunchOutcome> outcomes = new ArrayList<>();
+        for (Verified v : verified) {
+            long seq = v.punch().sequence();
+            if (seq <= locked.getLastPunchSequence()) {
+                // Applied by a concurrent flush of the same queue.
+                outcomes.add(PunchOutcome.duplicate(seq));
+                continue;
+            }
+            locked.setLastPunchSequence(seq);
+
+            if (v.employee() == null) {
+                outcomes.add(PunchOutcome.rejected(seq, "Invalid PIN"));
+            } else if (v.at().isBefore(oldest)) {
+                outcomes.add(PunchOutcome.rejected(seq, "Punch is older than " + maxAgeHours + " hours; ask an admin to enter it."));
+            } else if (v.punch().action() == PunchAction.IN) {
+                outcomes.add(clockIn(device, v.employee(), v.at(), seq));
+            } else {
+                outcomes.add(clockOut(device, v.employee(), v.at(), seq));
+            }
+        }
+        return new BatchResult(locked.getLastPunchSequence(), outcomes);
+    }
+
+    private PunchOutcome clockIn(Device device, Employee employee, Instant at, long seq) {
+        if (timeEntryRepository.findFirstByEmployeeAndClockOutTimeIsNull(employee).isPresent()) {
+            return PunchOutcome.rejected(seq, employee.getFullName() + " is already clocked in.");
+        }
+        TimeEntry entry = new TimeEntry();
+        entry.setEmployee(employee);
+        entry.setDevice(device);
+        entry.setLocation(device.getLocation());
+        entry.setClockInTime(at);
+        entry.setCreatedAt(Instant.now(clock));
+        // Flushed here so a clash with the one-open-shift index surfaces inside the batch, where it is retried.
+        timeEntryRepository.saveAndFlush(entry);
+        openShiftRegistry.track(entry);
+        clusterEventBus.publish(OutboxEventType.SHIFT_OPENED, ShiftChange.of(entry));
+        return PunchOutcome.applied(seq, "Clock-in: " + employee.getFullName());
+    }
+
+    private PunchOutcome clockOut(Device device, Employee employee, Instant at, long seq) {
+        Optional<TimeEntry> open = timeEntryRepository.findFirstByEmployeeAndClockOutTimeIsNull(employee);
+        if (open.isEmpty()) {
+            return PunchOutcome.rejected(seq, "No open shift found for " + employee.getFullName() + ".");
+        }
+        TimeEntry entry = open.get();
+        if (!entry.getDevice().getId().equals(device.getId())) {
+            return PunchOutcome.rejected(seq, employee.getFullName() + " must clock out at the same location.");
+        }
+        if (!at.isAfter(entry.getClockInTime())) {
+            return PunchOutcome.rejected(seq, "Clock-out must be after clock-in.");
+        }
+        if (timeEntryRepository.closeShift(entry.getId(), at) == 0) {
+            return PunchOutcome.rejected(seq, "No open shift found for " + employee.getFullName() + ".");
+        }
+        openShiftRegistry.closed(entry.getId());
+        dailyTotalsService.recordShift(employee.getId(), entry.getClockInTime(), at);
+        clusterEventBus.publish(OutboxEventType.SHIFT_CLOSED, ShiftChange.closed(entry, at));
+        return PunchOutcome.applied(seq, "Clock-out: " + employee.getFullName());
+    }
+
+    private record Verified(QueuedPunch punch, Instant at, Employee employee) {}
+
+    public enum PunchStatus { APPLIED, REJECTED, DUPLICATE, DEFERRED }
+
+    public record QueuedPunch(long sequence, PunchAction action, String pin, Instant deviceTime) {}
+
+    public record PunchOutcome(long sequence, PunchStatus status, String message) {
+        static PunchOutcome applied(long sequence, String message) {
+            return new PunchOutcome(sequence, PunchStatus.APPLIED, message);
+        }
+
+        static PunchOutcome rejected(long sequence, String message) {
+            return new PunchOutcome(sequence, PunchStatus.REJECTED, message);
+        }
+
+        static PunchOutcome duplicate(long sequence) {
+            return new PunchOutcome(sequence, PunchStatus.DUPLICATE, "Already applied.");
+        }
+
+        static PunchOutcome deferred(long sequence, String message) {
+            return new PunchOutcome(sequence, PunchStatus.DEFERRED, message);
+        }
+    }
+
+    /**
+     * {@code lastSequence} is the highest sequence the server has finished with; the kiosk may drop everything up
+     * to it and must re-send the rest.
+     */
+    public record BatchResult(long lastSequence, List<PunchOutcome> outcomes) {}
+}
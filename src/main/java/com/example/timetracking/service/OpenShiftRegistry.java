@@ -0,0 +1,190 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.TimeEntry;
+import com.example.timetracking.repo.OutboxEventRepository;
+import com.example.timetracking.repo.TimeEntryRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Authoritative in-memory view of open shifts, loaded once at startup and then kept in step with every write that
+ * opens, closes or edits a shift. Changes made inside a transaction are applied only after it commits.
+ * Reads are lock-free and never touch the database. {@link #version()} changes whenever the contents do.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OpenShiftRegistry {
+
+    private static final Comparator<OpenShift> NEWEST_FIRST =
+        Comparator.comparing(OpenShift::clockInTime).reversed();
+
+    private final TimeEntryRepository timeEntryRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final Clock clock;
+
+    @Value("${app.outbox.gap-grace-millis:120000}")
+    private long gapGraceMillis;
+
+    private final Map<Long, OpenShift> byEntry = new ConcurrentHashMap<>();
+    private final Map<Long, OpenShift> byEmployee = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, OpenShift>> byLocation = new ConcurrentHashMap<>();
+    private volatile long version;
+    private volatile OutboxPosition loadedAt = new OutboxPosition(0, 0);
+
+    /**
+     * Loads the open shifts. The outbox position is noted first, so {@link OpenShiftRegistrySync} can replay every
+     * change that might not be in what was loaded.
+     */
+    @PostConstruct
+    public void rebuild() {
+        OutboxPosition position = new OutboxPosition(
+            outboxEventRepository.maxIdCreatedBefore(Instant.now(clock).minusMillis(gapGraceMillis)),
+            outboxEventRepository.maxId());
+        List<TimeEntry> open = timeEntryRepository.findAllOpenWithEmployee();
+        synchronized (this) {
+            byEntry.clear();
+            byEmployee.clear();
+            byLocation.clear();
+            open.forEach(t -> put(OpenShift.of(t)));
+            version++;
+            loadedAt = position;
+        }
+        log.info("Loaded {} open shift(s)", open.size());
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public OutboxPosition loadedAt() {
+        return loadedAt;
+    }
+
+    public Optional<OpenShift> findByEmployee(long employeeId) {
+        return Optional.ofNullable(byEmployee.get(employeeId));
+    }
+
+    public List<OpenShift> findByLocation(long locationId) {
+        Map<Long, OpenShift> shifts = byLocation.get(locationId);
+        if (shifts == null || shifts.isEmpty()) {
+            return List.of();
+        }
+        return shifts.values().stream().sorted(NEWEST_FIRST).toList();
+    }
+
+    /**
+     * Records the entry's current state: open entries are (re)indexed, closed ones are dropped.
+     */
+    public void track(TimeEntry entry) {
+        OpenShift shift = entry.getClockOutTime() == null ? OpenShift.of(entry) : null;
+        long entryId = entry.getId();
+        afterCommit(() -> {
+            synchronized (this) {
+                remove(entryId);
+                if (shift != null) {
+                    put(shift);
+                }
+            }
+        });
+    }
+
+    public void closed(long timeEntryId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                remove(timeEntryId);
+            }
+        });
+    }
+
+    /**
+     * Applies a change committed on another node.
+     */
+    public synchronized void apply(ShiftChange change) {
+        remove(change.timeEntryId());
+        if (change.clockOutTime() == null) {
+            put(new OpenShift(change.timeEntryId(), change.employeeId(), change.employeeName(), change.locationId(),
+                change.deviceId(), change.clockInTime()));
+        }
+    }
+
+    /**
+     * Drops an entry immediately, for when the database shows it is no longer open and the caller is about to roll back.
+     */
+    public synchronized void forget(long timeEntryId) {
+        remove(timeEntryId);
+    }
+
+    // Callers hold the lock. The version moves after the maps, so a reader that sees it has the change too.
+    private void put(OpenShift shift) {
+        byEntry.put(shift.timeEntryId(), shift);
+        byEmployee.put(shift.employeeId(), shift);
+        byLocation.computeIfAbsent(shift.locationId(), id -> new ConcurrentHashMap<>()).put(shift.timeEntryId(), shift);
+        version++;
+    }
+
+    private void remove(long timeEntryId) {
+        OpenShift old = byEntry.remove(timeEntryId);
+        if (old == null) {
+            return;
+        }
+        byEmployee.remove(old.employeeId(), old);
+        Map<Long, OpenShift> atLocation = byLocation.get(old.locationId());
+        if (atLocation != null) {
+            atLocation.remove(timeEntryId);
+        }
+        version++;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * {@code replayAfter}: every event above it may be missing from the load (older ones had committed for longer
+     * than the outbox gap grace). {@code maxId}: every event this node publishes afterwards has a higher id.
+     */
+    public record OutboxPosition(long replayAfter, long maxId) {}
+
+    public record OpenShift(
+        long timeEntryId,
+        long employeeId,
+        String employeeName,
+        long locationId,
+        long deviceId,
+        Instant clockInTime
+    ) {
+        static OpenShift of(TimeEntry t) {
+            return new OpenShift(
+                t.getId(),
+                t.getEmployee().getId(),
+                t.getEmployee().getFullName(),
+                t.getLocation().getId(),
+                t.getDevice().getId(),
+                t.getClockInTime()
+            );
+        }
+    }
+}
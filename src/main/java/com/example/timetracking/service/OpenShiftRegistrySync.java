@@ -0,0 +1,59 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Keeps this node's {@link OpenShiftRegistry} in step with clock-ins, clock-outs and edits made on other nodes.
+ * Events this node published since it started are skipped, the registry already has them.
+ * <p>
+ * Delivery resumes from just before the registry was loaded rather than from the stored cursor. Each event carries
+ * the entry's full state, so replaying one the load already saw is harmless, while missing one is not.
+ */
+@Component
+@Slf4j
+public class OpenShiftRegistrySync implements OutboxConsumer {
+
+    private final OpenShiftRegistry openShiftRegistry;
+    private final OutboxPayloads outboxPayloads;
+    private final String nodeId;
+
+    public OpenShiftRegistrySync(OpenShiftRegistry openShiftRegistry,
+                                 OutboxPayloads outboxPayloads,
+                                 @Value("${app.cluster.node-id:local}") String nodeId) {
+        this.openShiftRegistry = openShiftRegistry;
+        this.outboxPayloads = outboxPayloads;
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public String name() {
+        return "open-shift-registry";
+    }
+
+    @Override
+    public OptionalLong startAfter() {
+        return OptionalLong.of(openShiftRegistry.loadedAt().replayAfter());
+    }
+
+    @Override
+    public void accept(List<OutboxEvent> events) {
+        long ownSince = openShiftRegistry.loadedAt().maxId();
+        for (OutboxEvent event : events) {
+            // Older events under this node's name were published by its previous run and are replayed too.
+            if (nodeId.equals(event.getOriginNode()) && event.getId() > ownSince) {
+                continue;
+            }
+            try {
+                openShiftRegistry.apply(outboxPayloads.read(event));
+            } catch (IllegalArgumentException ex) {
+                log.warn("Skipping unreadable outbox event {}", event.getId(), ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.Location;
+import com.example.timetracking.repo.LocationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The open shifts of every location, as shown on the dashboard, built from {@link OpenShiftRegistry} and cached
+ * together with its JSON and ETag. It is rebuilt only when the registry version moves (a clock-in, clock-out or edit)
+ * or the location list changed, so repeated polls cost nothing.
+ * <p>
+ * The ETag is a hash of the JSON, so it is the same on every node for the same content. The location list is read
+ * once per rebuild; locations created on another node show up within {@code app.open-shifts.locations-ttl-seconds}.
+ */
+@Service
+public class OpenShiftSnapshotService {
+
+    private final OpenShiftRegistry openShiftRegistry;
+    private final LocationRepository locationRepository;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Duration locationsTtl;
+
+    private volatile Snapshot current;
+    private List<LocationRow> locations;
+    private volatile Instant locationsLoadedAt;
+
+    public OpenShiftSnapshotService(OpenShiftRegistry openShiftRegistry,
+                                    LocationRepository locationRepository,
+                                    ObjectMapper objectMapper,
+                                    Clock clock,
+                                    @Value("${app.open-shifts.locations-ttl-seconds:60}") long locationsTtlSeconds) {
+        this.openShiftRegistry = openShiftRegistry;
+        this.locationRepository = locationRepository;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.locationsTtl = Duration.ofSeconds(locationsTtlSeconds);
+    }
+
+    public Snapshot current() {
+        Snapshot snapshot = current;
+        if (snapshot != null && snapshot.version() == openShiftRegistry.version() && !locationsExpired()) {
+            return snapshot;
+        }
+        return rebuild();
+    }
+
+    /**
+     * Drops the cached location list, after a location was created or changed on this node.
+     */
+    public synchronized void locationsChanged() {
+        locations = null;
+        current = null;
+    }
+
+    private synchronized Snapshot rebuild() {
+        long version = openShiftRegistry.version();
+        Snapshot snapshot = current;
+        if (snapshot != null && snapshot.version() == version && !locationsExpired()) {
+            return snapshot;
+        }
+        if (locations == null || locationsExpired()) {
+            locations = locationRepository.findAll().stream().map(LocationRow::of).toList();
+            locationsLoadedAt = Instant.now(clock);
+        }
+
+        Map<Long, List<OpenShiftRow>> openByLocation = new LinkedHashMap<>();
+        for (LocationRow location : locations) {
+            openByLocation.put(location.id(), openShiftRegistry.findByLocation(location.id()).stream()
+                .map(OpenShiftRow::of)
+                .toList());
+        }
+        byte[] json = write(new Body(locations, openByLocation));
+        snapshot = new Snapshot(version, locations, openByLocation, json, etag(json));
+        current = snapshot;
+        return snapshot;
+    }
+
+    private boolean locationsExpired() {
+        Instant loadedAt = locationsLoadedAt;
+        return loadedAt == null || Instant.now(clock).isAfter(loadedAt.plus(locationsTtl));
+    }
+
+    private byte[] write(Body body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize open shifts", ex);
+        }
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * {@code json} is the serialized {@code locations} and {@code openByLocation}; {@code etag} is quoted, ready
+     * for the header.
+     */
+    public record Snapshot(long version, List<LocationRow> locations, Map<Long, List<OpenShiftRow>> openByLocation,
+                           byte[] json, String etag) {}
+
+    public record LocationRow(long id, String name) {
+        static LocationRow of(Location l) {
+            return new LocationRow(l.getId(), l.getName());
+        }
+    }
+
+    public record OpenShiftRow(long timeEntryId, String employeeName, long clockInEpochMillis, String clockInIso) {
+        static OpenShiftRow of(OpenShiftRegistry.OpenShift t) {
+            return new OpenShiftRow(t.timeEntryId(), t.employeeName() == null ? "" : t.employeeName(),
+                t.clockInTime().toEpochMilli(), t.clockInTime().toString());
+        }
+    }
+
+    private record Body(List<LocationRow> locations, Map<Long, List<OpenShiftRow>> openByLocation) {}
+}
@@ -0,0 +1,29 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.OutboxEvent;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Receives outbox events from {@link OutboxRelay}, oldest first, on every node, including events published by other
+ * nodes. Delivery is at-least-once: a batch may be handed over again after a failure or restart, so consumers must
+ * tolerate repeats.
+ */
+public interface OutboxConsumer {
+
+    /**
+     * Stable name under which the consumer's cursor is stored (one cursor per node).
+     */
+    String name();
+
+    void accept(List<OutboxEvent> events);
+
+    /**
+     * For consumers whose state was loaded from the database when the node started: the event id to resume after,
+     * instead of the stored cursor, so nothing committed around the load is missed. Empty for the others.
+     */
+    default OptionalLong startAfter() {
+        return OptionalLong.empty();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class OutboxPayloads {
+
+    private final ObjectMapper objectMapper;
+
+    public String write(ShiftChange change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize outbox event", ex);
+        }
+    }
+
+    public ShiftChange read(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), ShiftChange.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Unreadable outbox event " + event.getId(), ex);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.OutboxCursor;
+import com.example.timetracking.model.OutboxEvent;
+import com.example.timetracking.repo.OutboxCursorRepository;
+import com.example.timetracking.repo.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains the outbox to every {@link OutboxConsumer} in batches, on one background thread. Each consumer has a
+ * stored cursor (the highest event id it is done with), advanced only after its batch was accepted.
+ * <p>
+ * Ids are assigned at insert but become visible at commit, so a lower id can appear after a higher one. Events past
+ * such a gap are delivered straight away, and the missing ids are re-checked on every drain so an event that commits
+ * late is still delivered. The stored cursor waits below the gap until it fills or outlives
+ * {@code app.outbox.gap-grace-millis} (a rolled-back insert never fills); ids given up on are logged.
+ * <p>
+ * Every node runs its own relay, so cursors are kept per consumer and node ({@code app.cluster.node-id}).
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxCursorRepository outboxCursorRepository;
+    private final List<OutboxConsumer> consumers;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final int batchSize;
+    private final Duration gapGrace;
+    private final Duration retention;
+    private final String nodeId;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "outbox-relay");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean wakePending = new AtomicBoolean();
+    private final Map<String, ConsumerState> states = new HashMap<>();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxCursorRepository outboxCursorRepository,
+                       List<OutboxConsumer> consumers,
+                       TransactionTemplate transactionTemplate,
+                       Clock clock,
+                       @Value("${app.outbox.batch-size:200}") int batchSize,
+                       @Value("${app.outbox.gap-grace-millis:120000}") long gapGraceMillis,
+                       @Value("${app.outbox.retention-hours:24}") long retentionHours,
+                       @Value("${app.cluster.node-id:local}") String nodeId) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxCursorRepository = outboxCursorRepository;
+        this.consumers = consumers;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.gapGrace = Duration.ofMillis(gapGraceMillis);
+        this.retention = Duration.ofHours(retentionHours);
+        this.nodeId = nodeId;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Schedules a drain on the relay thread; calls made while one is already queued are folded into it.
+     */
+    public void wake() {
+        if (wakePending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                wakePending.set(false);
+                drainAll();
+            });
+        }
+    }
+
+    // Picks up events committed by other nodes and retries consumers that failed.
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-millis:1000}")
+    public void poll() {
+        wake();
+    }
+
+    // Cursors not moved within the retention period belong to nodes that are gone (or idle at the end of the outbox)
+    // and do not hold back the purge.
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-interval-millis:3600000}")
+    public void purgeDelivered() {
+        Instant before = Instant.now(clock).minus(retention);
+        Optional<Long> upTo = outboxCursorRepository.findMinLastEventIdUpdatedSince(before);
+        if (upTo.isEmpty() || upTo.get() == 0) {
+            return;
+        }
+        Integer purged = transactionTemplate.execute(status -> outboxEventRepository.deleteDelivered(upTo.get(), before));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} delivered outbox event(s)", purged);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Package-private for tests; otherwise only run on the relay thread.
+    void drainAll() {
+        for (OutboxConsumer consumer : consumers) {
+            try {
+                ConsumerState state = states.computeIfAbsent(cursorName(consumer), name -> loadState(consumer));
+                while (drain(consumer, state)) {
+                    // keep going while full batches advance the cursor
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Outbox delivery to {} failed; will retry", consumer.name(), ex);
+            }
+        }
+    }
+
+    private boolean drain(OutboxConsumer consumer, ConsumerState state) {
+        Instant now = Instant.now(clock);
+        recheckGaps(consumer, state, now);
+
+        List<OutboxEvent> events = outboxEventRepository.findAfter(state.readPosition, PageRequest.of(0, batchSize));
+        if (!events.isEmpty()) {
+            consumer.accept(events);
+            long expected = state.readPosition + 1;
+            for (OutboxEvent event : events) {
+                if (event.getId() > expected) {
+                    state.gaps.put(expected, new Gap(event.getId() - 1, now));
+                }
+                expected = event.getId() + 1;
+            }
+            state.readPosition = expected - 1;
+        }
+
+        long cursor = state.gaps.isEmpty() ? state.readPosition : state.gaps.firstKey() - 1;
+        if (cursor != state.cursor) {
+            saveCursor(cursorName(consumer), cursor);
+            state.cursor = cursor;
+        }
+        return events.size() == batchSize;
+    }
+
+    // Delivers events that committed inside a gap since the last look, then gives up on gaps older than the grace.
+    private void recheckGaps(OutboxConsumer consumer, ConsumerState state, Instant now) {
+        if (state.gaps.isEmpty()) {
+            return;
+        }
+        List<Long> late = outboxEventRepository.findIdsBetween(state.gaps.firstKey(), state.gaps.lastEntry().getValue().to())
+            .stream()
+            .filter(state::inGap)
+            .toList();
+        if (!late.isEmpty()) {
+            List<OutboxEvent> events = outboxEventRepository.findAllById(late).stream()
+                .sorted(Comparator.comparing(OutboxEvent::getId))
+                .toList();
+            consumer.accept(events);
+            events.forEach(e -> state.fill(e.getId()));
+        }
+
+        Iterator<Map.Entry<Long, Gap>> it = state.gaps.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Gap> gap = it.next();
+            if (Duration.between(gap.getValue().seenAt(), now).compareTo(gapGrace) < 0) {
+                continue;
+            }
+            long from = gap.getKey();
+            long to = gap.getValue().to();
+            log.warn("Outbox event id(s) {} not committed within {} ms; {} skips them",
+                from == to ? String.valueOf(from) : from + ".." + to, gapGrace.toMillis(), consumer.name());
+            it.remove();
+        }
+    }
+
+    private String cursorName(OutboxConsumer consumer) {
+        return consumer.name() + "@" + nodeId;
+    }
+
+    // A consumer seen for the first time starts at the current end of the outbox rather than replaying history.
+    private ConsumerState loadState(OutboxConsumer consumer) {
+        String name = cursorName(consumer);
+        OptionalLong startAfter = consumer.startAfter();
+        if (startAfter.isPresent()) {
+            saveCursor(name, startAfter.getAsLong());
+            return new ConsumerState(startAfter.getAsLong());
+        }
+        long cursor = outboxCursorRepository.findById(name)
+            .map(OutboxCursor::getLastEventId)
+            .orElseGet(() -> {
+                long end = outboxEventRepository.maxId();
+                saveCursor(name, end);
+                return end;
+            });
+        return new ConsumerState(cursor);
+    }
+
+    private void saveCursor(String name, long lastEventId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            OutboxCursor cursor = outboxCursorRepository.findById(name).orElseGet(() -> {
+                OutboxCursor c = new OutboxCursor();
+                c.setConsumer(name);
+                return c;
+            });
+            cursor.setLastEventId(lastEventId);
+            cursor.setUpdatedAt(Instant.now(clock));
+            outboxCursorRepository.save(cursor);
+        });
+    }
+
+    /**
+     * {@code cursor} is what is stored: everything up to it is done. {@code readPosition} is the highest id handed to
+     * the consumer; the ids between them that were missing are kept in {@code gaps}, by first id.
+     */
+    private static final class ConsumerState {
+        private long cursor;
+        private long readPosition;
+        private final TreeMap<Long, Gap> gaps = new TreeMap<>();
+
+        private ConsumerState(long cursor) {
+            this.cursor = cursor;
+            this.readPosition = cursor;
+        }
+
+        private boolean inGap(long id) {
+            Map.Entry<Long, Gap> gap = gaps.floorEntry(id);
+            return gap != null && id <= gap.getValue().to();
+        }
+
+        private void fill(long id) {
+            Map.Entry<Long, Gap> gap = gaps.floorEntry(id);
+            if (gap == null || id > gap.getValue().to()) {
+                return;
+            }
+            gaps.remove(gap.getKey());
+            if (gap.getKey() < id) {
+                gaps.put(gap.getKey(), new Gap(id - 1, gap.getValue().seenAt()));
+            }
+            if (id < gap.getValue().to()) {
+                gaps.put(id + 1, new Gap(gap.getValue().to(), gap.getValue().seenAt()));
+            }
+        }
+    }
+
+    private record Gap(long to, Instant seenAt) {}
+}
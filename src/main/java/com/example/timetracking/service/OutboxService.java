@@ -0,0 +1,49 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.OutboxEvent;
+import com.example.timetracking.model.OutboxEventType;
+import com.example.timetracking.repo.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Database-backed {@link ClusterEventBus}: writes clock and edit events to the outbox inside the caller's
+ * transaction, so an event exists exactly when its change committed. Delivery happens later on the relay thread of
+ * every node; the commit only wakes the local one, other nodes pick the event up on their next poll.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService implements ClusterEventBus {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxRelay outboxRelay;
+    private final OutboxPayloads outboxPayloads;
+    private final Clock clock;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(OutboxEventType type, ShiftChange change) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(type);
+        event.setLocationId(change.locationId());
+        event.setTimeEntryId(change.timeEntryId());
+        event.setPayload(outboxPayloads.write(change));
+        event.setCreatedAt(Instant.now(clock));
+        event.setOriginNode(outboxRelay.nodeId());
+        outboxEventRepository.save(event);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxRelay.wake();
+            }
+        });
+    }
+}
@@ -1,65 +1,72 @@
 package com.example.timetracking.service;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Clock;
-import java.time.Instant;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class PinAttemptService {
 
-    private static final int MAX_FAILURES = 5;
-    private static final int LOCK_MINUTES = 5;
-
-    private final Map<String, State> states = new ConcurrentHashMap<>();
+    private final SlidingWindowLimiter devices;
+    private final SlidingWindowLimiter clientIps;
     private final Clock clock;
 
-    public PinAttemptService(Clock clock) {
+    public PinAttemptService(Clock clock,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.pin.attempts.device.max-failures:5}") int deviceMaxFailures,
+                             @Value("${app.pin.attempts.client-ip.max-failures:20}") int clientIpMaxFailures,
+                             @Value("${app.pin.attempts.window-seconds:300}") long windowSeconds,
+                             @Value("${app.pin.attempts.lock-seconds:300}") long lockSeconds,
+                             @Value("${app.pin.attempts.max-entries:10000}") int maxEntries) {
         this.clock = clock;
+        this.devices = new SlidingWindowLimiter(deviceMaxFailures, windowSeconds * 1000L, lockSeconds * 1000L, maxEntries);
+        this.clientIps = new SlidingWindowLimiter(clientIpMaxFailures, windowSeconds * 1000L, lockSeconds * 1000L, maxEntries);
+
+        Gauge.builder("pin.attempts.tracked", devices, SlidingWindowLimiter::size)
+            .tag("key", "device")
+            .register(meterRegistry);
+        Gauge.builder("pin.attempts.tracked", clientIps, SlidingWindowLimiter::size)
+            .tag("key", "client-ip")
+            .register(meterRegistry);
     }
 
-    public void checkAllowed(String key) {
-        if (key == null || key.isBlank()) {
-            return;
-        }
-        State s = states.get(key);
-        if (s == null) {
-            return;
-        }
-        if (s.lockedUntil != null && Instant.now(clock).isBefore(s.lockedUntil)) {
+    public void checkAllowed(String deviceKey, String clientIp) {
+        long now = clock.millis();
+        if ((hasText(deviceKey) && devices.isLocked(deviceKey, now))
+            || (hasText(clientIp) && clientIps.isLocked(clientIp, now))) {
             throw new IllegalStateException("Too many failed attempts. Try again later.");
         }
     }
 
-    public void recordSuccess(String key) {
-        if (key == null || key.isBlank()) {
-            return;
+    public void recordSuccess(String deviceKey, String clientIp) {
+        if (hasText(deviceKey)) {
+            devices.reset(deviceKey);
         }
-        states.remove(key);
+        // The client-ip window is shared by every kiosk behind that address, so it is left to slide out on its own.
     }
 
-    public void recordFailure(String key) {
-        if (key == null || key.isBlank()) {
-            return;
+    public void recordFailure(String deviceKey, String clientIp) {
+        long now = clock.millis();
+        if (hasText(deviceKey)) {
+            devices.recordFailure(deviceKey, now);
         }
-        State s = states.computeIfAbsent(key, k -> new State());
-        Instant now = Instant.now(clock);
-
-        if (s.lockedUntil != null && now.isAfter(s.lockedUntil)) {
-            s.failures = 0;
-            s.lockedUntil = null;
+        if (hasText(clientIp)) {
+            clientIps.recordFailure(clientIp, now);
         }
+    }
 
-        s.failures++;
-        if (s.failures >= MAX_FAILURES) {
-            s.lockedUntil = now.plusSeconds(LOCK_MINUTES * 60L);
-        }
+    @Scheduled(fixedDelayString = "${app.pin.attempts.sweep-interval-millis:60000}")
+    public void sweep() {
+        long now = clock.millis();
+        devices.sweep(now);
+        clientIps.sweep(now);
     }
 
-    private static class State {
-        private int failures = 0;
-        private Instant lockedUntil;
+    private boolean hasText(String key) {
+        return key != null && !key.isBlank();
     }
 }
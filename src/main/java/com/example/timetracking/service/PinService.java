@@ -1,16 +1,28 @@
 package com.example.timetracking.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class PinService {
 
+    private static final String LOOKUP_ALGORITHM = "HmacSHA256";
+    private static final Set<String> PLACEHOLDER_SECRETS = Set.of(
+        "change-me-pin-lookup-secret", "change-me", "changeme", "secret", "password");
+
     private final PasswordEncoder passwordEncoder;
 
     private final SecureRandom random = new SecureRandom();
@@ -21,6 +33,23 @@ public class PinService {
     @Value("${app.pin.length-max:4}")
     private int maxLen;
 
+    @Value("${app.pin.lookup-secret:}")
+    private String lookupSecret;
+
+    /**
+     * Refuses to start without a real secret: with a missing or published one, the lookup column gives away every
+     * PIN to anyone who can read it.
+     */
+    @PostConstruct
+    void checkLookupSecret() {
+        if (lookupSecret == null || lookupSecret.isBlank()) {
+            throw new IllegalStateException("app.pin.lookup-secret is not configured; set PIN_LOOKUP_SECRET");
+        }
+        if (PLACEHOLDER_SECRETS.contains(lookupSecret.trim().toLowerCase(Locale.ROOT))) {
+            throw new IllegalStateException("app.pin.lookup-secret is a placeholder value; set a real PIN_LOOKUP_SECRET");
+        }
+    }
+
     public String generatePin() {
         int len = minLen == maxLen ? minLen : (minLen + random.nextInt((maxLen - minLen) + 1));
         int bound = (int) Math.pow(10, len);
@@ -35,4 +64,22 @@ public class PinService {
     public boolean matches(String pin, String pinHash) {
         return passwordEncoder.matches(pin, pinHash);
     }
+
+    public boolean needsRehash(String pinHash) {
+        return passwordEncoder.upgradeEncoding(pinHash);
+    }
+
+    /**
+     * Deterministic, server-keyed fingerprint of a PIN used as an indexed lookup key.
+     * Without the secret the column cannot be brute-forced offline the way a plain hash of a 4-digit PIN could.
+     */
+    public String lookupKey(String pin) {
+        try {
+            Mac mac = Mac.getInstance(LOOKUP_ALGORITHM);
+            mac.init(new SecretKeySpec(lookupSecret.getBytes(StandardCharsets.UTF_8), LOOKUP_ALGORITHM));
+            return HexFormat.of().formatHex(mac.doFinal(pin.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("PIN lookup key unavailable", ex);
+        }
+    }
 }
@@ -0,0 +1,14 @@
+package com.example.timetracking.service;
+
+import lombok.Getter;
+
+@Getter
+public class PinVerificationBusyException extends IllegalStateException {
+
+    private final int retryAfterSeconds;
+
+    public PinVerificationBusyException(int retryAfterSeconds) {
+        super("The time clock is busy. Please try again in " + retryAfterSeconds + " seconds.");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.timetracking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Dedicated, bounded pool for bcrypt work. Request threads hand PIN checks to it and wait; when its queue is full
+ * new work is refused with {@link PinVerificationBusyException} instead of piling up behind a shift-change burst.
+ */
+@Component
+public class PinVerificationExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final int poolSize;
+    private final int retryAfterSeconds;
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    public PinVerificationExecutor(@Value("${app.pin.verify-threads:0}") int threads,
+                                   @Value("${app.pin.verify-queue-capacity:64}") int queueCapacity,
+                                   @Value("${app.pin.verify-retry-after-seconds:3}") int retryAfterSeconds,
+                                   MeterRegistry meterRegistry) {
+        this.poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.retryAfterSeconds = retryAfterSeconds;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+            r -> {
+                Thread t = new Thread(r, "pin-verify-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Gauge.builder("pin.verify.queue.depth", executor, e -> e.getQueue().size())
+            .description("PIN verification tasks waiting for a thread")
+            .register(meterRegistry);
+        Gauge.builder("pin.verify.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("PIN verification threads currently hashing")
+            .register(meterRegistry);
+        this.waitTimer = Timer.builder("pin.verify.wait")
+            .description("Time PIN verification tasks spent queued before running")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("pin.verify.rejected")
+            .description("PIN verifications refused because the queue was full")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Tests candidates on the pool and returns the first one that matches. Candidates are taken in list order by
+     * up to one task per pool thread; once a match is found the remaining candidates are skipped.
+     */
+    public <T> Optional<T> firstMatch(List<T> candidates, Predicate<T> matcher) {
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+
+        int taskCount = Math.min(candidates.size(), poolSize);
+        AtomicInteger next = new AtomicInteger();
+        AtomicBoolean found = new AtomicBoolean(false);
+        CompletionService<Optional<T>> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Optional<T>>> futures = new ArrayList<>(taskCount);
+
+        try {
+            for (int i = 0; i < taskCount; i++) {
+                long queuedAt = System.nanoTime();
+                futures.add(submit(completion, () -> {
+                    waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                    int idx;
+                    while (!found.get() && (idx = next.getAndIncrement()) < candidates.size()) {
+                        T candidate = candidates.get(idx);
+                        if (matcher.test(candidate)) {
+                            found.set(true);
+                            return Optional.of(candidate);
+                        }
+                    }
+                    return Optional.empty();
+                }));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                Optional<T> result = completion.take().get();
+                if (result.isPresent()) {
+                    return result;
+                }
+            }
+            return Optional.empty();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("PIN verification interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("PIN verification failed", ex.getCause());
+        } finally {
+            found.set(true);
+            for (Future<Optional<T>> f : futures) {
+                f.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Runs a single hashing task on the pool and waits for its result.
+     */
+    public <T> T call(Callable<T> task) {
+        long queuedAt = System.nanoTime();
+        Future<T> future = submit(executor, () -> {
+            waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            return task.call();
+        });
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("PIN hashing interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("PIN hashing failed", ex.getCause());
+        }
+    }
+
+    private <T> Future<T> submit(CompletionService<T> completion, Callable<T> task) {
+        try {
+            return completion.submit(task);
+        } catch (RejectedExecutionException ex) {
+            rejectedCounter.increment();
+            throw new PinVerificationBusyException(retryAfterSeconds);
+        }
+    }
+
+    private <T> Future<T> submit(ThreadPoolExecutor pool, Callable<T> task) {
+        try {
+            return pool.submit(task);
+        } catch (RejectedExecutionException ex) {
+            rejectedCounter.increment();
+            throw new PinVerificationBusyException(retryAfterSeconds);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
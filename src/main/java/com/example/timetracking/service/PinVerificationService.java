@@ -0,0 +1,123 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.Employee;
+import com.example.timetracking.model.EmployeeRole;
+import com.example.timetracking.repo.EmployeeRepository;
+import com.example.timetracking.repo.TimeEntryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resolves a PIN to an employee. Deliberately not transactional: bcrypt runs on {@link PinVerificationExecutor}
+ * between short repository calls, so no database connection is held while hashing.
+ */
+@Service
+@RequiredArgsConstructor
+public class PinVerificationService {
+
+    private final EmployeeRepository employeeRepository;
+    private final TimeEntryRepository timeEntryRepository;
+    private final PinService pinService;
+    private final PinVerificationExecutor pinVerificationExecutor;
+    private final VerifiedPinCache verifiedPinCache;
+
+    public Optional<Employee> findActiveEmployee(String pin) {
+        return findActiveEmployee(pin, null);
+    }
+
+    public Optional<Employee> findActiveEmployee(String pin, EmployeeRole role) {
+        String lookupKey = pinService.lookupKey(pin);
+
+        Optional<Long> cachedId = verifiedPinCache.get(lookupKey);
+        if (cachedId.isPresent()) {
+            // The key must still be the employee's: a verification of the old PIN that finished after a reset
+            // committed may have cached it again.
+            Optional<Employee> cached = employeeRepository.findById(cachedId.get())
+                .filter(Employee::isActive)
+                .filter(e -> lookupKey.equals(e.getPinLookup()));
+            if (cached.isEmpty()) {
+                verifiedPinCache.evictKey(lookupKey);
+            } else if (hasRole(cached.get(), role)) {
+                return cached;
+            }
+        }
+
+        List<Employee> keyed = employeeRepository.findAllByPinLookupAndActiveIsTrue(lookupKey).stream()
+            .filter(e -> hasRole(e, role))
+            .toList();
+        Optional<Employee> match = pinVerificationExecutor.firstMatch(keyed, e -> pinService.matches(pin, e.getPinHash()));
+        if (match.isPresent()) {
+            onVerified(match.get(), pin, lookupKey);
+            return match;
+        }
+
+        // Employees whose PIN predates the lookup column; onVerified backfills it on their first successful match.
+        List<Employee> legacy = employeeRepository.findAllByPinLookupIsNullAndActiveIsTrue().stream()
+            .filter(e -> hasRole(e, role))
+            .toList();
+        match = pinVerificationExecutor.firstMatch(mostRecentlyClockedFirst(legacy), e -> pinService.matches(pin, e.getPinHash()));
+        match.ifPresent(e -> onVerified(e, pin, lookupKey));
+        return match;
+    }
+
+    private void onVerified(Employee e, String pin, String lookupKey) {
+        boolean dirty = false;
+        if (e.getPinLookup() == null) {
+            if (employeeRepository.existsByPinLookup(lookupKey)) {
+                // Someone else already owns this PIN; leave it to the bulk reissue to give this employee a new one.
+                dirty = !e.isPinReissueRequired();
+                e.setPinReissueRequired(true);
+            } else {
+                e.setPinLookup(lookupKey);
+                dirty = true;
+            }
+        }
+        if (pinService.needsRehash(e.getPinHash())) {
+            try {
+                e.setPinHash(pinVerificationExecutor.call(() -> pinService.hashPin(pin)));
+                dirty = true;
+            } catch (PinVerificationBusyException ignored) {
+                // Rehash is opportunistic; it will be retried on the employee's next successful match.
+            }
+        }
+        if (dirty) {
+            try {
+                employeeRepository.save(e);
+            } catch (DataIntegrityViolationException ex) {
+                // Lost a race for the lookup key; the employee stays on the legacy path until the next match.
+                return;
+            }
+        }
+        if (e.getPinLookup() != null) {
+            verifiedPinCache.put(lookupKey, e.getId());
+        }
+    }
+
+    private List<Employee> mostRecentlyClockedFirst(List<Employee> employees) {
+        if (employees.size() < 2) {
+            return employees;
+        }
+        Map<Long, Instant> lastClockIn = new HashMap<>();
+        for (var row : timeEntryRepository.findLastClockInByEmployees(employees)) {
+            lastClockIn.put(row.getEmployeeId(), row.getLastClockIn());
+        }
+        return employees.stream()
+            .sorted(Comparator.comparing(
+                (Employee e) -> lastClockIn.get(e.getId()),
+                Comparator.nullsLast(Comparator.reverseOrder())
+            ))
+            .toList();
+    }
+
+    private boolean hasRole(Employee e, EmployeeRole role) {
+        return role == null || role == e.getRole();
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.timetracking.service;
+
+public enum PunchAction {
+    IN,
+    OUT
+}
@@ -0,0 +1,93 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.OutboxEvent;
+import com.example.timetracking.model.OutboxEventType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Version stamps for report data, so report endpoints can answer conditional requests without recomputing.
+ * <p>
+ * Fed by the cluster event bus on every node. A clock-in or clock-out changes every report window that ends after
+ * the start of the shift's (UTC) day; an edit may have moved the shift from anywhere, so it changes all windows. A
+ * window's version is the number of such changes that reach it, and only ever grows. Stamps include the node and its
+ * start time, so a stamp from another node or from before a restart never matches.
+ */
+@Component
+@Slf4j
+public class ReportDataVersions implements OutboxConsumer {
+
+    private static final Instant ALL_WINDOWS = Instant.MIN;
+
+    private final OutboxPayloads outboxPayloads;
+    private final Clock clock;
+    private final Instant startedAt;
+    private final String instance;
+
+    // Changes by the earliest window end they reach; ALL_WINDOWS for every window.
+    private final ConcurrentSkipListMap<Instant, Changes> changes = new ConcurrentSkipListMap<>();
+
+    public ReportDataVersions(OutboxPayloads outboxPayloads,
+                              Clock clock,
+                              @Value("${app.cluster.node-id:local}") String nodeId) {
+        this.outboxPayloads = outboxPayloads;
+        this.clock = clock;
+        this.startedAt = Instant.now(clock).truncatedTo(ChronoUnit.SECONDS);
+        this.instance = nodeId + "-" + Long.toHexString(startedAt.toEpochMilli());
+    }
+
+    @Override
+    public String name() {
+        return "report-versions";
+    }
+
+    @Override
+    public void accept(List<OutboxEvent> events) {
+        Instant now = Instant.now(clock);
+        for (OutboxEvent event : events) {
+            if (event.getEventType() == OutboxEventType.TIME_ENTRY_EDITED) {
+                record(ALL_WINDOWS, now);
+                continue;
+            }
+            try {
+                record(outboxPayloads.read(event).clockInTime().truncatedTo(ChronoUnit.DAYS), now);
+            } catch (IllegalArgumentException ex) {
+                log.warn("Unreadable outbox event {}; treating it as a change to every report", event.getId(), ex);
+                record(ALL_WINDOWS, now);
+            }
+        }
+    }
+
+    /**
+     * Stamp for the report over {@code [start, end)}: the ETag (quoted) changes whenever the data may have, and
+     * {@code lastModified} is when it last did.
+     */
+    public Stamp stamp(Instant start, Instant end) {
+        long version = 0;
+        Instant lastModified = startedAt;
+        for (Changes c : changes.headMap(end).values()) {
+            version += c.count();
+            if (c.lastAt().isAfter(lastModified)) {
+                lastModified = c.lastAt();
+            }
+        }
+        String etag = "\"" + instance + "-" + Long.toHexString(start.toEpochMilli()) + "-"
+            + Long.toHexString(end.toEpochMilli()) + "-" + version + "\"";
+        return new Stamp(etag, lastModified);
+    }
+
+    private void record(Instant reachesFrom, Instant at) {
+        changes.merge(reachesFrom, new Changes(1, at), (a, b) -> new Changes(a.count() + 1, b.lastAt()));
+    }
+
+    public record Stamp(String etag, Instant lastModified) {}
+
+    private record Changes(long count, Instant lastAt) {}
+}
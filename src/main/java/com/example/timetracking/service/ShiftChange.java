@@ -0,0 +1,47 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.TimeEntry;
+
+import java.time.Instant;
+
+/**
+ * Outbox payload for shift events: which employee's shift at which location, and its times after the change.
+ */
+public record ShiftChange(
+    long timeEntryId,
+    long employeeId,
+    String employeeName,
+    long locationId,
+    long deviceId,
+    Instant clockInTime,
+    Instant clockOutTime
+) {
+    static ShiftChange of(TimeEntry t) {
+        return new ShiftChange(
+            t.getId(),
+            t.getEmployee().getId(),
+            t.getEmployee().getFullName(),
+            t.getLocation().getId(),
+            t.getDevice().getId(),
+            t.getClockInTime(),
+            t.getClockOutTime()
+        );
+    }
+
+    static ShiftChange closed(TimeEntry t, Instant clockOutTime) {
+        return new ShiftChange(
+            t.getId(),
+            t.getEmployee().getId(),
+            t.getEmployee().getFullName(),
+            t.getLocation().getId(),
+            t.getDevice().getId(),
+            t.getClockInTime(),
+            clockOutTime
+        );
+    }
+
+    static ShiftChange closed(OpenShiftRegistry.OpenShift open, Instant clockOutTime) {
+        return new ShiftChange(open.timeEntryId(), open.employeeId(), open.employeeName(), open.locationId(),
+            open.deviceId(), open.clockInTime(), clockOutTime);
+    }
+}
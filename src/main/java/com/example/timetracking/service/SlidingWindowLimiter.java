@@ -0,0 +1,101 @@
+package com.example.timetracking.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free sliding-window failure counter. Each key holds an immutable {@link Window} swapped by CAS; the count is
+ * the current fixed window plus the overlapping share of the previous one. The map is capped at {@code maxEntries}:
+ * once full (after sweeping expired keys), new keys share a single overflow window, so a flood of distinct keys
+ * cannot grow memory and still gets limited collectively.
+ */
+class SlidingWindowLimiter {
+
+    private static final String OVERFLOW_KEY = "\u0000overflow";
+
+    private final int maxFailures;
+    private final long windowMillis;
+    private final long lockMillis;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, AtomicReference<Window>> windows = new ConcurrentHashMap<>();
+
+    SlidingWindowLimiter(int maxFailures, long windowMillis, long lockMillis, int maxEntries) {
+        this.maxFailures = maxFailures;
+        this.windowMillis = windowMillis;
+        this.lockMillis = lockMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    boolean isLocked(String key, long now) {
+        AtomicReference<Window> ref = windows.get(key);
+        if (ref == null && windows.size() >= maxEntries) {
+            ref = windows.get(OVERFLOW_KEY);
+        }
+        return ref != null && ref.get().lockedUntil() > now;
+    }
+
+    void recordFailure(String key, long now) {
+        AtomicReference<Window> ref = windows.get(key);
+        if (ref == null) {
+            if (windows.size() >= maxEntries) {
+                sweep(now);
+                if (windows.size() >= maxEntries) {
+                    key = OVERFLOW_KEY;
+                }
+            }
+            ref = windows.computeIfAbsent(key, k -> new AtomicReference<>(Window.EMPTY));
+        }
+
+        Window current;
+        do {
+            current = ref.get();
+        } while (!ref.compareAndSet(current, current.fail(now, windowMillis, maxFailures, lockMillis)));
+    }
+
+    void reset(String key) {
+        windows.remove(key);
+    }
+
+    void sweep(long now) {
+        windows.entrySet().removeIf(e -> e.getValue().get().isExpired(now, windowMillis));
+    }
+
+    int size() {
+        return windows.size();
+    }
+
+    private record Window(long windowStart, int current, int previous, long lockedUntil) {
+
+        private static final Window EMPTY = new Window(0L, 0, 0, 0L);
+
+        Window fail(long now, long windowMillis, int maxFailures, long lockMillis) {
+            long alignedStart = now - Math.floorMod(now, windowMillis);
+            int cur = current;
+            int prev = previous;
+
+            if (lockedUntil != 0L && now >= lockedUntil) {
+                cur = 0;
+                prev = 0;
+            } else if (alignedStart - windowStart >= 2 * windowMillis) {
+                cur = 0;
+                prev = 0;
+            } else if (alignedStart != windowStart) {
+                prev = cur;
+                cur = 0;
+            }
+            cur++;
+
+            double previousWeight = (double) (windowMillis - (now - alignedStart)) / windowMillis;
+            double estimate = cur + prev * previousWeight;
+            long lock = lockedUntil > now ? lockedUntil : 0L;
+            if (estimate >= maxFailures) {
+                lock = now + lockMillis;
+            }
+            return new Window(alignedStart, cur, prev, lock);
+        }
+
+        boolean isExpired(long now, long windowMillis) {
+            return lockedUntil <= now && now - windowStart >= 2 * windowMillis;
+        }
+    }
+}
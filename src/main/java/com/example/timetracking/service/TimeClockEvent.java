@@ -1,3 +0,0 @@
-package com.example.timetracking.service;
-
-public record TimeClockEvent(long locationId) {}
@@ -2,31 +2,89 @@ package com.example.timetracking.service;
 
 import com.example.timetracking.model.Device;
 import com.example.timetracking.model.Employee;
-import com.example.timetracking.repo.EmployeeRepository;
+import com.example.timetracking.model.OutboxEventType;
 import com.example.timetracking.repo.TimeEntryRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Clock;
 import java.time.Instant;
-
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Clock-in/out. The PIN is verified first, outside any transaction, so bcrypt never holds a database
+ * connection; only the short write that follows runs in {@link TransactionTemplate}.
+ * <p>
+ * "One open shift per employee" is enforced by the {@code uk_time_entries_one_open} index; the registry check is
+ * only a fast path. Requests carrying a token are replayed from {@link ClockRequestLedger} when repeated, on any node.
+ */
 @Service
 @RequiredArgsConstructor
 public class TimeClockService {
 
-    private final EmployeeRepository employeeRepository;
+    static final String ONE_OPEN_SHIFT_INDEX = "uk_time_entries_one_open";
+
+    // Kiosks send UUIDs; the bound keeps request keys within clock_requests.request_key.
+    private static final int MAX_REQUEST_TOKEN_LENGTH = 64;
+
     private final TimeEntryRepository timeEntryRepository;
+    private final OpenShiftRegistry openShiftRegistry;
+    private final PinVerificationService pinVerificationService;
     private final PinService pinService;
+    private final ClockRequestLedger clockRequestLedger;
+    private final DailyTotalsService dailyTotalsService;
+    private final TransactionTemplate transactionTemplate;
     private final Clock clock;
-    private final ApplicationEventPublisher eventPublisher;
+    private final ClusterEventBus clusterEventBus;
+
+    public ClockResult clockIn(Device device, String pin, String requestToken) {
+        String key = requestKey("in", device, pin, requestToken);
+        return clockRequestLedger.execute(key, ClockResult.class, () -> {
+            Employee employee = findActiveEmployeeByPin(pin);
+            try {
+                return transactionTemplate.execute(status -> clockRequestLedger.record(key, clockIn(device, employee)));
+            } catch (DataIntegrityViolationException ex) {
+                if (isOpenShiftConflict(ex)) {
+                    throw new IllegalStateException("You are already clocked in.");
+                }
+                throw ex;
+            }
+        });
+    }
 
-    @Transactional
-    public ClockResult clockIn(Device device, String pin) {
-        Employee employee = findActiveEmployeeByPin(pin);
+    public ClockOutResult clockOut(Device device, String pin, String requestToken) {
+        String key = requestKey("out", device, pin, requestToken);
+        return clockRequestLedger.execute(key, ClockOutResult.class, () -> {
+            Employee employee = findActiveEmployeeByPin(pin);
+            return transactionTemplate.execute(status -> clockRequestLedger.record(key, clockOut(device, employee)));
+        });
+    }
+
+    /**
+     * True when the violation is the one-open-shift-per-employee index, i.e. a concurrent clock-in won the race.
+     */
+    public static boolean isOpenShiftConflict(DataIntegrityViolationException ex) {
+        String message = NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(ONE_OPEN_SHIFT_INDEX);
+    }
+
+    // The PIN is part of the key so a stale form resubmitted with someone else's PIN is not answered with the old result.
+    private String requestKey(String action, Device device, String pin, String requestToken) {
+        if (requestToken == null || requestToken.isBlank() || pin == null || pin.isBlank()) {
+            return null;
+        }
+        if (requestToken.length() > MAX_REQUEST_TOKEN_LENGTH) {
+            throw new IllegalArgumentException("Invalid request token.");
+        }
+        return action + ":" + device.getId() + ":" + requestToken + ":" + pinService.lookupKey(pin);
+    }
 
-        timeEntryRepository.findFirstByEmployeeAndClockOutTimeIsNull(employee)
+    private ClockResult clockIn(Device device, Employee employee) {
+        openShiftRegistry.findByEmployee(employee.getId())
             .ifPresent(open -> {
                 throw new IllegalStateException("You are already clocked in.");
             });
@@ -37,30 +95,41 @@ public class TimeClockService {
         entry.setLocation(device.getLocation());
         entry.setClockInTime(Instant.now(clock));
         entry.setCreatedAt(Instant.now(clock));
-        timeEntryRepository.save(entry);
-
-        eventPublisher.publishEvent(new TimeClockEvent(device.getLocation().getId()));
+        timeEntryRepository.saveAndFlush(entry);
+        openShiftRegistry.track(entry);
+        clusterEventBus.publish(OutboxEventType.SHIFT_OPENED, ShiftChange.of(entry));
 
         return new ClockResult(employee.getFullName(), entry.getClockInTime());
     }
 
-    @Transactional
-    public ClockOutResult clockOut(Device device, String pin) {
-        Employee employee = findActiveEmployeeByPin(pin);
-
-        var open = timeEntryRepository.findFirstByEmployeeAndClockOutTimeIsNull(employee)
+    private ClockOutResult clockOut(Device device, Employee employee) {
+        var open = openShiftRegistry.findByEmployee(employee.getId())
+            .or(() -> findOpenShiftInDatabase(employee))
             .orElseThrow(() -> new IllegalStateException("No open shift found.") );
 
-        if (!open.getDevice().getId().equals(device.getId())) {
+        if (open.deviceId() != device.getId()) {
             throw new IllegalStateException("You must clock out at the same location.");
         }
 
         Instant out = Instant.now(clock);
-        open.setClockOutTime(out);
+        if (timeEntryRepository.closeShift(open.timeEntryId(), out) == 0) {
+            openShiftRegistry.forget(open.timeEntryId());
+            throw new IllegalStateException("No open shift found.");
+        }
+        openShiftRegistry.closed(open.timeEntryId());
+        dailyTotalsService.recordShift(employee.getId(), open.clockInTime(), out);
+        clusterEventBus.publish(OutboxEventType.SHIFT_CLOSED, ShiftChange.closed(open, out));
 
-        eventPublisher.publishEvent(new TimeClockEvent(device.getLocation().getId()));
+        return new ClockOutResult(employee.getFullName(), open.clockInTime(), out);
+    }
 
-        return new ClockOutResult(employee.getFullName(), open.getClockInTime(), out);
+    // The registry lags shifts opened on another node until the outbox relay delivers them; the database does not.
+    private Optional<OpenShiftRegistry.OpenShift> findOpenShiftInDatabase(Employee employee) {
+        return timeEntryRepository.findFirstByEmployeeAndClockOutTimeIsNull(employee)
+            .map(entry -> {
+                openShiftRegistry.apply(ShiftChange.of(entry));
+                return OpenShiftRegistry.OpenShift.of(entry);
+            });
     }
 
     private Employee findActiveEmployeeByPin(String pin) {
@@ -68,13 +137,8 @@ public class TimeClockService {
             throw new IllegalArgumentException("PIN is required");
         }
 
-        for (Employee e : employeeRepository.findAll()) {
-            if (e.isActive() && pinService.matches(pin, e.getPinHash())) {
-                return e;
-            }
-        }
-
-        throw new IllegalStateException("Invalid PIN");
+        return pinVerificationService.findActiveEmployee(pin)
+            .orElseThrow(InvalidPinException::new);
     }
 
     public record ClockResult(String employeeName, Instant clockInTime) {}
@@ -0,0 +1,104 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.Employee;
+import com.example.timetracking.model.OutboxEventType;
+import com.example.timetracking.model.TimeEntry;
+import com.example.timetracking.model.TimeEntryAudit;
+import com.example.timetracking.repo.TimeEntryAuditRepository;
+import com.example.timetracking.repo.TimeEntryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Admin corrections to a time entry. The entry, its audit rows, the daily totals and the outbox event are written in
+ * one transaction.
+ */
+@Service
+@RequiredArgsConstructor
+public class TimeEntryEditService {
+
+    private final TimeEntryRepository timeEntryRepository;
+    private final TimeEntryAuditRepository timeEntryAuditRepository;
+    private final OpenShiftRegistry openShiftRegistry;
+    private final DailyTotalsService dailyTotalsService;
+    private final ClusterEventBus clusterEventBus;
+
+    @Transactional
+    public void edit(long id, Instant in, Instant out, String reason, Employee editor) {
+        TimeEntry entry = timeEntryRepository.findByIdWithDetails(id)
+            .orElseThrow(() -> new IllegalArgumentException("Time entry not found"));
+
+        Instant oldIn = entry.getClockInTime();
+        Instant oldOut = entry.getClockOutTime();
+        String oldReason = entry.getEditReason();
+
+        // Data rule: prevent multiple open shifts for same employee
+        if (out == null) {
+            openShiftRegistry.findByEmployee(entry.getEmployee().getId())
+                .ifPresent(open -> {
+                    if (open.timeEntryId() != entry.getId()) {
+                        throw new IllegalStateException("Employee already has an open shift.");
+                    }
+                });
+        }
+
+        entry.setClockInTime(in);
+        entry.setClockOutTime(out);
+        entry.setEdited(true);
+        entry.setEditReason(reason);
+        if (editor != null) {
+            entry.setEditedBy(editor);
+        }
+
+        try {
+            timeEntryRepository.saveAndFlush(entry);
+        } catch (DataIntegrityViolationException ex) {
+            if (TimeClockService.isOpenShiftConflict(ex)) {
+                throw new IllegalStateException("Employee already has an open shift.");
+            }
+            throw ex;
+        }
+        openShiftRegistry.track(entry);
+        dailyTotalsService.reviseShift(entry.getEmployee().getId(), oldIn, oldOut, in, out);
+
+        if (editor != null) {
+            List<TimeEntryAudit> audits = new ArrayList<>();
+            if (!safeEquals(oldIn, in)) {
+                audits.add(audit(entry, editor, "clockInTime", str(oldIn), str(in)));
+            }
+            if (!safeEquals(oldOut, out)) {
+                audits.add(audit(entry, editor, "clockOutTime", str(oldOut), str(out)));
+            }
+            if (!safeEquals(oldReason, reason)) {
+                audits.add(audit(entry, editor, "editReason", oldReason, reason));
+            }
+            timeEntryAuditRepository.saveAll(audits);
+        }
+
+        clusterEventBus.publish(OutboxEventType.TIME_ENTRY_EDITED, ShiftChange.of(entry));
+    }
+
+    private TimeEntryAudit audit(TimeEntry entry, Employee editor, String field, String oldVal, String newVal) {
+        TimeEntryAudit a = new TimeEntryAudit();
+        a.setTimeEntry(entry);
+        a.setEditedBy(editor);
+        a.setFieldName(field);
+        a.setOldValue(oldVal);
+        a.setNewValue(newVal);
+        return a;
+    }
+
+    private boolean safeEquals(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private String str(Instant i) {
+        return i == null ? null : i.toString();
+    }
+}
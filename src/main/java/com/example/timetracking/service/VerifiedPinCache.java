@@ -0,0 +1,79 @@
+package com.example.timetracking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+public class VerifiedPinCache {
+
+    private final Clock clock;
+    private final Duration ttl;
+    private final Map<String, Entry> entries;
+
+    public VerifiedPinCache(Clock clock,
+                            @Value("${app.pin.cache-ttl-seconds:43200}") long ttlSeconds,
+                            @Value("${app.pin.cache-max-entries:10000}") int maxEntries) {
+        this.clock = clock;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized Optional<Long> get(String lookupKey) {
+        Entry e = entries.get(lookupKey);
+        if (e == null) {
+            return Optional.empty();
+        }
+        if (!Instant.now(clock).isBefore(e.expiresAt())) {
+            entries.remove(lookupKey);
+            return Optional.empty();
+        }
+        return Optional.of(e.employeeId());
+    }
+
+    public synchronized void put(String lookupKey, long employeeId) {
+        if (ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        entries.put(lookupKey, new Entry(employeeId, Instant.now(clock).plus(ttl)));
+    }
+
+    public synchronized void evictKey(String lookupKey) {
+        entries.remove(lookupKey);
+    }
+
+    /**
+     * Drops every cached PIN for the employee now and, when called inside a transaction, again after it commits,
+     * so a verification racing the change cannot re-cache the old PIN.
+     */
+    public void evictEmployee(long employeeId) {
+        removeEmployee(employeeId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeEmployee(employeeId);
+                }
+            });
+        }
+    }
+
+    private synchronized void removeEmployee(long employeeId) {
+        entries.values().removeIf(e -> e.employeeId() == employeeId);
+    }
+
+    private record Entry(long employeeId, Instant expiresAt) {}
+}
@@ -5,10 +5,11 @@ import com.example.timetracking.model.Location;
 import com.example.timetracking.model.LocationType;
 import com.example.timetracking.repo.EmployeeRepository;
 import com.example.timetracking.repo.LocationRepository;
-import com.example.timetracking.repo.TimeEntryRepository;
 import com.example.timetracking.service.DeviceCookieService;
 import com.example.timetracking.service.DeviceService;
+import com.example.timetracking.service.EmployeeDirectory;
 import com.example.timetracking.service.EmployeeService;
+import com.example.timetracking.service.OpenShiftSnapshotService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -26,7 +27,6 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.WeekFields;
 import java.util.Locale;
-import java.util.List;
 
 @Controller
 @RequiredArgsConstructor
@@ -34,8 +34,9 @@ public class AdminController {
 
     private final EmployeeService employeeService;
     private final EmployeeRepository employeeRepository;
+    private final EmployeeDirectory employeeDirectory;
     private final LocationRepository locationRepository;
-    private final TimeEntryRepository timeEntryRepository;
+    private final OpenShiftSnapshotService openShiftSnapshotService;
     private final DeviceCookieService deviceCookieService;
     private final DeviceService deviceService;
     private final Clock clock;
@@ -50,9 +51,11 @@ public class AdminController {
                             Model model, Authentication authentication,
                             @RequestParam(value = "message", required = false) String message) {
         model.addAttribute("serverEpochMillis", Instant.now(clock).toEpochMilli());
-        List<Location> locations = locationRepository.findAll();
-        model.addAttribute("locations", locations);
-        model.addAttribute("employees", employeeRepository.findAll());
+        OpenShiftSnapshotService.Snapshot openShifts = openShiftSnapshotService.current();
+        model.addAttribute("locations", openShifts.locations());
+        model.addAttribute("employees",
+            employeeDirectory.search(null, null, null, null, AdminEmployeeController.PAGE_SIZE));
+        model.addAttribute("pinReissueCount", employeeRepository.countByPinReissueRequiredIsTrue());
         model.addAttribute("message", message);
 
         boolean deviceRegistered = false;
@@ -72,10 +75,7 @@ public class AdminController {
         LocalDate weekStart = today.with(WeekFields.of(Locale.US).dayOfWeek(), 1);
         model.addAttribute("weekStart", weekStart);
 
-        model.addAttribute("openByLocation", locations.stream().collect(java.util.stream.Collectors.toMap(
-            Location::getId,
-            loc -> timeEntryRepository.findOpenByLocationWithEmployee(loc)
-        )));
+        model.addAttribute("openByLocation", openShifts.openByLocation());
 
         model.addAttribute("adminId", authentication == null ? null : authentication.getName());
         return "admin/dashboard";
@@ -117,6 +117,7 @@ public class AdminController {
         l.setAddress(address);
         l.setActive(true);
         locationRepository.save(l);
+        openShiftSnapshotService.locationsChanged();
         redirectAttributes.addAttribute("message", "Location created.");
         return "redirect:/admin";
     }
@@ -138,13 +139,24 @@ public class AdminController {
         return "redirect:/admin";
     }
 
+    @PostMapping("/admin/employees/reissue-colliding-pins")
+    public String reissueCollidingPins(RedirectAttributes redirectAttributes) {
+        var reissued = employeeService.reissueCollidingPins();
+        if (reissued.isEmpty()) {
+            redirectAttributes.addAttribute("message", "No colliding PINs to reissue.");
+        } else {
+            String pins = reissued.stream()
+                .map(r -> r.fullName() + " (#" + r.employeeId() + "): " + r.rawPin())
+                .collect(java.util.stream.Collectors.joining(", "));
+            redirectAttributes.addAttribute("message", "Reissued " + reissued.size() + " PIN(s). New PINs: " + pins);
+        }
+        return "redirect:/admin";
+    }
+
     @PostMapping("/admin/employees/toggle-active")
     public String toggleEmployeeActive(@RequestParam("employeeId") long employeeId,
                                        RedirectAttributes redirectAttributes) {
-        var e = employeeRepository.findById(employeeId)
-            .orElseThrow(() -> new IllegalArgumentException("Employee not found"));
-        e.setActive(!e.isActive());
-        employeeRepository.save(e);
+        employeeService.toggleActive(employeeId);
         redirectAttributes.addAttribute("message", "Employee updated.");
         return "redirect:/admin";
     }
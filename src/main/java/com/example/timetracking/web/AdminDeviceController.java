@@ -1,6 +1,7 @@
 package com.example.timetracking.web;
 
 import com.example.timetracking.repo.DeviceRepository;
+import com.example.timetracking.service.DeviceService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -14,6 +15,7 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 public class AdminDeviceController {
 
     private final DeviceRepository deviceRepository;
+    private final DeviceService deviceService;
 
     @GetMapping("/admin/devices")
     public String devices(Model model,
@@ -26,10 +28,7 @@ public class AdminDeviceController {
     @PostMapping("/admin/devices/toggle-active")
     public String toggleActive(@RequestParam("deviceId") long deviceId,
                                RedirectAttributes redirectAttributes) {
-        var d = deviceRepository.findById(deviceId)
-            .orElseThrow(() -> new IllegalArgumentException("Device not found"));
-        d.setActive(!d.isActive());
-        deviceRepository.save(d);
+        deviceService.toggleActive(deviceId);
         redirectAttributes.addAttribute("message", "Device updated.");
         return "redirect:/admin/devices";
     }
@@ -0,0 +1,71 @@
+package com.example.timetracking.web;
+
+import com.example.timetracking.model.EmployeeRole;
+import com.example.timetracking.service.EmployeeDirectory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Employee directory: search by name (or id), filter by role and status, one page at a time. {@code after} is the
+ * {@code nextAfter} of the previous page.
+ */
+@Controller
+@RequiredArgsConstructor
+public class AdminEmployeeController {
+
+    static final int PAGE_SIZE = 50;
+
+    private final EmployeeDirectory employeeDirectory;
+
+    @GetMapping("/admin/employees")
+    public String employees(Model model,
+                            @RequestParam(value = "q", required = false) String q,
+                            @RequestParam(value = "role", required = false) EmployeeRole role,
+                            @RequestParam(value = "active", required = false) Boolean active,
+                            @RequestParam(value = "after", required = false) Long after,
+                            @RequestParam(value = "message", required = false) String message) {
+        model.addAttribute("page", search(q, role, active, after, PAGE_SIZE));
+        model.addAttribute("q", q);
+        model.addAttribute("role", role);
+        model.addAttribute("active", active);
+        model.addAttribute("paged", after != null);
+        model.addAttribute("roles", EmployeeRole.values());
+        model.addAttribute("message", message);
+        return "admin/employees";
+    }
+
+    @GetMapping("/admin/employees/data")
+    @ResponseBody
+    public EmployeePage employeesData(@RequestParam(value = "q", required = false) String q,
+                                      @RequestParam(value = "role", required = false) EmployeeRole role,
+                                      @RequestParam(value = "active", required = false) Boolean active,
+                                      @RequestParam(value = "after", required = false) Long after,
+                                      @RequestParam(value = "limit", defaultValue = "" + PAGE_SIZE) int limit) {
+        EmployeeDirectory.Page page = search(q, role, active, after, limit);
+        List<EmployeeRow> rows = page.rows().stream()
+            .map(e -> new EmployeeRow(e.id(), e.fullName(), e.role(), e.active()))
+            .toList();
+        return new EmployeePage(rows, page.nextAfter());
+    }
+
+    // A bad page size or a cursor for an employee the directory does not know is the client's mistake.
+    private EmployeeDirectory.Page search(String q, EmployeeRole role, Boolean active, Long after, int limit) {
+        try {
+            return employeeDirectory.search(q, role, active, after, limit);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        }
+    }
+
+    public record EmployeeRow(long id, String fullName, EmployeeRole role, boolean active) {}
+
+    public record EmployeePage(List<EmployeeRow> rows, Long nextAfter) {}
+}
@@ -1,56 +1,57 @@
 package com.example.timetracking.web;
 
-import com.example.timetracking.model.Location;
-import com.example.timetracking.repo.LocationRepository;
-import com.example.timetracking.repo.TimeEntryRepository;
 import com.example.timetracking.service.AdminSseService;
+import com.example.timetracking.service.OpenShiftSnapshotService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @RestController
 @RequiredArgsConstructor
 public class AdminRealtimeController {
 
     private final AdminSseService adminSseService;
-    private final LocationRepository locationRepository;
-    private final TimeEntryRepository timeEntryRepository;
+    private final OpenShiftSnapshotService openShiftSnapshotService;
 
+    /**
+     * {@code topics} and {@code locations} are comma-separated; omitted means everything. EventSource sends
+     * {@code Last-Event-ID} by itself when it reconnects.
+     */
     @GetMapping(path = "/admin/open-shifts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter openShiftsStream() {
-        return adminSseService.subscribe();
+    public SseEmitter openShiftsStream(@RequestParam(value = "topics", required = false) Set<String> topics,
+                                       @RequestParam(value = "locations", required = false) Set<Long> locations,
+                                       @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        if (topics != null && (topics.isEmpty() || !AdminSseService.ADMIN_TOPICS.containsAll(topics))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown topic: " + topics);
+        }
+        return adminSseService.subscribe(topics == null ? AdminSseService.ADMIN_TOPICS : topics,
+            locations == null ? Set.of() : locations, lastEventId);
     }
 
+    /**
+     * Answers 304 while the snapshot is unchanged since the client's copy.
+     */
     @GetMapping("/admin/open-shifts/data")
-    @ResponseBody
-    public OpenShiftsSnapshot openShiftsData() {
-        List<Location> locations = locationRepository.findAll();
-
-        Map<Long, List<OpenShiftRow>> openByLocation = locations.stream().collect(Collectors.toMap(
-            Location::getId,
-            loc -> timeEntryRepository.findOpenByLocationWithEmployee(loc).stream().map(t ->
-                new OpenShiftRow(
-                    t.getEmployee() == null ? "" : t.getEmployee().getFullName(),
-                    t.getClockInTime() == null ? null : t.getClockInTime().toEpochMilli(),
-                    t.getClockInTime() == null ? null : t.getClockInTime().toString()
-                )
-            ).toList()
-        ));
-
-        List<LocationRow> locRows = locations.stream().map(l -> new LocationRow(l.getId(), l.getName())).toList();
-        return new OpenShiftsSnapshot(locRows, openByLocation);
+    public ResponseEntity<byte[]> openShiftsData(WebRequest request) {
+        OpenShiftSnapshotService.Snapshot snapshot = openShiftSnapshotService.current();
+        if (request.checkNotModified(snapshot.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+            .eTag(snapshot.etag())
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(snapshot.json());
     }
-
-    public record LocationRow(Long id, String name) {}
-
-    public record OpenShiftRow(String employeeName, Long clockInEpochMillis, String clockInIso) {}
-
-    public record OpenShiftsSnapshot(List<LocationRow> locations, Map<Long, List<OpenShiftRow>> openByLocation) {}
 }
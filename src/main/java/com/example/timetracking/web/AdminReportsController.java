@@ -1,8 +1,10 @@
 package com.example.timetracking.web;
 
+import com.example.timetracking.service.ReportDataVersions;
 import com.example.timetracking.service.WeeklyHoursService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -11,7 +13,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.Clock;
 import java.time.Instant;
@@ -40,6 +42,7 @@ import java.nio.charset.StandardCharsets;
 public class AdminReportsController {
 
     private final WeeklyHoursService weeklyHoursService;
+    private final ReportDataVersions reportDataVersions;
     private final Clock clock;
 
     @GetMapping("/admin/reports/weekly")
@@ -92,8 +95,8 @@ public class AdminReportsController {
     }
 
     @GetMapping("/admin/reports/weekly/data")
-    @ResponseBody
-    public WeeklyHoursService.WeeklyReport weeklyReportData(
+    public ResponseEntity<WeeklyHoursService.WeeklyReport> weeklyReportData(
+        WebRequest request,
         @RequestParam(value = "weekStart", required = false)
         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
         LocalDate weekStart
@@ -106,12 +109,12 @@ public class AdminReportsController {
 
         Instant start = weekStart.atStartOfDay(zone).toInstant();
         Instant end = weekStart.plusDays(7).atStartOfDay(zone).toInstant();
-        return weeklyHoursService.computeWeeklyReport(start, end, Instant.now(clock));
+        return reportData(request, start, end);
     }
 
     @GetMapping("/admin/reports/range/data")
-    @ResponseBody
-    public WeeklyHoursService.WeeklyReport rangeReportData(
+    public ResponseEntity<WeeklyHoursService.WeeklyReport> rangeReportData(
+        WebRequest request,
         @RequestParam(value = "fromDate")
         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
         LocalDate fromDate,
@@ -128,7 +131,20 @@ public class AdminReportsController {
 
         Instant start = fromDate.atStartOfDay(zone).toInstant();
         Instant endExclusive = toDate.plusDays(1).atStartOfDay(zone).toInstant();
-        return weeklyHoursService.computeWeeklyReport(start, endExclusive, Instant.now(clock));
+        return reportData(request, start, endExclusive);
+    }
+
+    // Answers 304 while no clock event or edit has reached the window since the client's copy.
+    private ResponseEntity<WeeklyHoursService.WeeklyReport> reportData(WebRequest request, Instant start, Instant end) {
+        ReportDataVersions.Stamp stamp = reportDataVersions.stamp(start, end);
+        if (request.checkNotModified(stamp.etag(), stamp.lastModified().toEpochMilli())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+            .eTag(stamp.etag())
+            .lastModified(stamp.lastModified())
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(weeklyHoursService.computeWeeklyReport(start, end, Instant.now(clock)));
     }
 
     @GetMapping("/admin/reports/weekly/pdf")
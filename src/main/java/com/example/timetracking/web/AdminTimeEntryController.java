@@ -2,10 +2,9 @@ package com.example.timetracking.web;
 
 import com.example.timetracking.model.Employee;
 import com.example.timetracking.model.TimeEntry;
-import com.example.timetracking.model.TimeEntryAudit;
 import com.example.timetracking.repo.EmployeeRepository;
-import com.example.timetracking.repo.TimeEntryAuditRepository;
 import com.example.timetracking.repo.TimeEntryRepository;
+import com.example.timetracking.service.TimeEntryEditService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -29,7 +28,7 @@ public class AdminTimeEntryController {
 
     private final TimeEntryRepository timeEntryRepository;
     private final EmployeeRepository employeeRepository;
-    private final TimeEntryAuditRepository timeEntryAuditRepository;
+    private final TimeEntryEditService timeEntryEditService;
 
     private final ZoneId zone = ZoneId.of("UTC");
 
@@ -99,13 +98,6 @@ public class AdminTimeEntryController {
             return "redirect:/admin/time-entries/edit";
         }
 
-        TimeEntry entry = timeEntryRepository.findByIdWithDetails(id)
-            .orElseThrow(() -> new IllegalArgumentException("Time entry not found"));
-
-        Instant oldIn = entry.getClockInTime();
-        Instant oldOut = entry.getClockOutTime();
-        String oldReason = entry.getEditReason();
-
         Instant in = clockIn.atZone(zone).toInstant();
         Instant out = (clockOut == null) ? null : clockOut.atZone(zone).toInstant();
 
@@ -115,62 +107,12 @@ public class AdminTimeEntryController {
             return "redirect:/admin/time-entries/edit";
         }
 
-        // Data rule: prevent multiple open shifts for same employee
-        if (out == null) {
-            timeEntryRepository.findFirstByEmployeeAndClockOutTimeIsNull(entry.getEmployee())
-                .ifPresent(open -> {
-                    if (!open.getId().equals(entry.getId())) {
-                        throw new IllegalStateException("Employee already has an open shift.");
-                    }
-                });
-        }
-
-        entry.setClockInTime(in);
-        entry.setClockOutTime(out);
-        entry.setEdited(true);
-        entry.setEditReason(reason);
-
-        Employee editor = resolveAdminEmployee(authentication);
-        if (editor != null) {
-            entry.setEditedBy(editor);
-        }
-
-        timeEntryRepository.save(entry);
-
-        if (editor != null) {
-            if (!safeEquals(oldIn, in)) {
-                timeEntryAuditRepository.save(audit(entry, editor, "clockInTime", str(oldIn), str(in)));
-            }
-            if (!safeEquals(oldOut, out)) {
-                timeEntryAuditRepository.save(audit(entry, editor, "clockOutTime", str(oldOut), str(out)));
-            }
-            if (!safeEquals(oldReason, reason)) {
-                timeEntryAuditRepository.save(audit(entry, editor, "editReason", oldReason, reason));
-            }
-        }
+        timeEntryEditService.edit(id, in, out, reason, resolveAdminEmployee(authentication));
 
         redirectAttributes.addAttribute("message", "Time entry updated.");
         return "redirect:/admin/time-entries";
     }
 
-    private TimeEntryAudit audit(TimeEntry entry, Employee editor, String field, String oldVal, String newVal) {
-        TimeEntryAudit a = new TimeEntryAudit();
-        a.setTimeEntry(entry);
-        a.setEditedBy(editor);
-        a.setFieldName(field);
-        a.setOldValue(oldVal);
-        a.setNewValue(newVal);
-        return a;
-    }
-
-    private boolean safeEquals(Object a, Object b) {
-        return a == null ? b == null : a.equals(b);
-    }
-
-    private String str(Instant i) {
-        return i == null ? null : i.toString();
-    }
-
     private String toDateTimeLocal(Instant instant) {
         if (instant == null) {
             return "";
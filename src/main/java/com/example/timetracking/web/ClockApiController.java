@@ -0,0 +1,196 @@
+package com.example.timetracking.web;
+
+import com.example.timetracking.model.Device;
+import com.example.timetracking.service.AdminSseService;
+import com.example.timetracking.service.DeviceCookieService;
+import com.example.timetracking.service.DeviceService;
+import com.example.timetracking.service.InvalidPinException;
+import com.example.timetracking.service.OfflinePunchService;
+import com.example.timetracking.service.OpenShiftRegistry;
+import com.example.timetracking.service.PinAttemptService;
+import com.example.timetracking.service.PinVerificationBusyException;
+import com.example.timetracking.service.PunchAction;
+import com.example.timetracking.service.TimeClockService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JSON variant of the kiosk clock: one round trip per punch, answering with the outcome and the location's
+ * updated open shifts, instead of POST, redirect and a full page render.
+ */
+@RestController
+@RequiredArgsConstructor
+public class ClockApiController {
+
+    private final DeviceCookieService deviceCookieService;
+    private final DeviceService deviceService;
+    private final TimeClockService timeClockService;
+    private final OpenShiftRegistry openShiftRegistry;
+    private final PinAttemptService pinAttemptService;
+    private final OfflinePunchService offlinePunchService;
+    private final AdminSseService adminSseService;
+    private final Clock clock;
+
+    @GetMapping("/clock/api/status")
+    public ResponseEntity<ClockStatus> status(HttpServletRequest request) {
+        Optional<Device> device = resolveDevice(request);
+        if (device.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(unregistered());
+        }
+        return ResponseEntity.ok(status(device.get()));
+    }
+
+    @PostMapping("/clock/api/punch")
+    public ResponseEntity<PunchResponse> punch(HttpServletRequest request, @RequestBody PunchRequest punch) {
+        String deviceUuid = deviceCookieService.readDeviceUuid(request).orElse(null);
+        Optional<Device> device = resolveDevice(request);
+        if (device.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(new PunchResponse(false, "This computer is not registered.", unregistered()));
+        }
+        if (punch.action() == null) {
+            return ResponseEntity.badRequest()
+                .body(new PunchResponse(false, "Action is required.", status(device.get())));
+        }
+
+        String clientIp = request.getRemoteAddr();
+        try {
+            pinAttemptService.checkAllowed(deviceUuid, clientIp);
+            String message = switch (punch.action()) {
+                case IN -> ClockController.clockInMessage(
+                    timeClockService.clockIn(device.get(), punch.pin(), punch.requestToken()));
+                case OUT -> ClockController.clockOutMessage(
+                    timeClockService.clockOut(device.get(), punch.pin(), punch.requestToken()));
+            };
+            pinAttemptService.recordSuccess(deviceUuid, clientIp);
+            return ResponseEntity.ok(new PunchResponse(true, message, status(device.get())));
+        } catch (PinVerificationBusyException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new PunchResponse(false, ex.getMessage(), status(device.get())));
+        } catch (InvalidPinException ex) {
+            pinAttemptService.recordFailure(deviceUuid, clientIp);
+            return ResponseEntity.unprocessableEntity()
+                .body(new PunchResponse(false, ex.getMessage(), status(device.get())));
+        } catch (RuntimeException ex) {
+            return ResponseEntity.unprocessableEntity()
+                .body(new PunchResponse(false, ex.getMessage(), status(device.get())));
+        }
+    }
+
+    /**
+     * Live open-shift changes at the kiosk's own location, so the page can update its list without reloading.
+     */
+    @GetMapping(path = "/clock/api/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(HttpServletRequest request,
+                                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        Optional<Device> device = resolveDevice(request);
+        if (device.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(adminSseService.subscribe(Set.of(AdminSseService.TOPIC_KIOSK),
+            Set.of(device.get().getLocation().getId()), lastEventId));
+    }
+
+    /**
+     * Flushes a kiosk's offline queue. The response tells the kiosk which punches it can drop.
+     */
+    @PostMapping("/clock/api/batch")
+    public ResponseEntity<BatchResponse> batch(HttpServletRequest request, @RequestBody BatchRequest batch) {
+        String deviceUuid = deviceCookieService.readDeviceUuid(request).orElse(null);
+        Optional<Device> device = resolveDevice(request);
+        if (device.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(new BatchResponse(null, "This computer is not registered.", unregistered()));
+        }
+        if (batch.punches() == null || batch.punches().isEmpty()) {
+            return ResponseEntity.badRequest()
+                .body(new BatchResponse(null, "No punches to apply.", status(device.get())));
+        }
+        if (batch.sentAtEpochMillis() == null || batch.sentAtEpochMillis() <= 0) {
+            return ResponseEntity.badRequest()
+                .body(new BatchResponse(null, "The batch is missing its send time.", status(device.get())));
+        }
+
+        try {
+            List<OfflinePunchService.QueuedPunch> punches = batch.punches().stream()
+                .map(p -> new OfflinePunchService.QueuedPunch(p.sequence(), p.action(), p.pin(),
+                    p.deviceEpochMillis() == null ? null : Instant.ofEpochMilli(p.deviceEpochMillis())))
+                .toList();
+            var result = offlinePunchService.apply(device.get(), deviceUuid, request.getRemoteAddr(),
+                Instant.ofEpochMilli(batch.sentAtEpochMillis()), punches);
+            return ResponseEntity.ok(new BatchResponse(result, null, status(device.get())));
+        } catch (IllegalArgumentException | DateTimeException | ArithmeticException ex) {
+            return ResponseEntity.badRequest()
+                .body(new BatchResponse(null, ex.getMessage(), status(device.get())));
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new BatchResponse(null, ex.getMessage(), status(device.get())));
+        } catch (DataIntegrityViolationException ex) {
+            // Nothing was applied; the kiosk keeps its queue and sends it again.
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new BatchResponse(null, "The punches clashed with another change; they will be sent again.",
+                    status(device.get())));
+        }
+    }
+
+    private Optional<Device> resolveDevice(HttpServletRequest request) {
+        try {
+            return deviceCookieService.readDeviceUuid(request).map(deviceService::requireActiveRegisteredDevice);
+        } catch (RuntimeException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private ClockStatus status(Device device) {
+        List<OpenShiftRow> open = openShiftRegistry.findByLocation(device.getLocation().getId()).stream()
+            .map(t -> new OpenShiftRow(t.timeEntryId(), t.employeeName(), t.clockInTime().toEpochMilli(), t.clockInTime().toString()))
+            .toList();
+        return new ClockStatus(device.getLocation().getName(), Instant.now(clock).toEpochMilli(), open,
+            UUID.randomUUID().toString());
+    }
+
+    private ClockStatus unregistered() {
+        return new ClockStatus("Unregistered Device", Instant.now(clock).toEpochMilli(), List.of(), null);
+    }
+
+    public record PunchRequest(PunchAction action, String pin, String requestToken) {}
+
+    /**
+     * {@code requestToken} is a fresh idempotency token for the kiosk's next punch.
+     */
+    public record ClockStatus(String locationName, long serverEpochMillis, List<OpenShiftRow> openShifts,
+                              String requestToken) {}
+
+    public record OpenShiftRow(long timeEntryId, String employeeName, long clockInEpochMillis, String clockInIso) {}
+
+    public record PunchResponse(boolean success, String message, ClockStatus clock) {}
+
+    public record OfflinePunch(long sequence, PunchAction action, String pin, Long deviceEpochMillis) {}
+
+    /**
+     * {@code sentAtEpochMillis} is the kiosk's clock when it sent the batch, used to correct its skew.
+     */
+    public record BatchRequest(Long sentAtEpochMillis, List<OfflinePunch> punches) {}
+
+    public record BatchResponse(OfflinePunchService.BatchResult result, String message, ClockStatus clock) {}
+}
@@ -1,14 +1,18 @@
 package com.example.timetracking.web;
 
 import com.example.timetracking.model.Device;
-import com.example.timetracking.repo.TimeEntryRepository;
+import com.example.timetracking.service.DailyTotalsService;
 import com.example.timetracking.service.DeviceCookieService;
 import com.example.timetracking.service.DeviceService;
+import com.example.timetracking.service.InvalidPinException;
+import com.example.timetracking.service.OpenShiftRegistry;
 import com.example.timetracking.service.PinAttemptService;
+import com.example.timetracking.service.PinVerificationBusyException;
 import com.example.timetracking.service.TimeClockService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -23,6 +27,7 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
+import java.util.UUID;
 
 @Controller
 @RequiredArgsConstructor
@@ -31,10 +36,14 @@ public class ClockController {
     private final DeviceCookieService deviceCookieService;
     private final DeviceService deviceService;
     private final TimeClockService timeClockService;
-    private final TimeEntryRepository timeEntryRepository;
+    private final DailyTotalsService dailyTotalsService;
+    private final OpenShiftRegistry openShiftRegistry;
     private final PinAttemptService pinAttemptService;
     private final Clock clock;
 
+    @Value("${app.clock.offline-max-age-hours:72}")
+    private long offlineMaxAgeHours;
+
     @GetMapping("/clock")
     public String clockHome(HttpServletRequest request, HttpServletResponse response, Model model,
                             @RequestParam(value = "clockInMessage", required = false) String clockInMessage,
@@ -43,20 +52,22 @@ public class ClockController {
             .orElseGet(() -> deviceCookieService.ensureDeviceUuidCookie(response));
 
         model.addAttribute("serverEpochMillis", Instant.now(clock).toEpochMilli());
+        model.addAttribute("requestToken", UUID.randomUUID().toString());
+        model.addAttribute("offlineMaxAgeMillis", Duration.ofHours(offlineMaxAgeHours).toMillis());
 
         try {
             Device device = deviceService.requireActiveRegisteredDevice(deviceUuid);
             model.addAttribute("locationName", device.getLocation().getName());
 
-            var openEntries = timeEntryRepository.findOpenByLocationWithEmployee(device.getLocation());
+            var openEntries = openShiftRegistry.findByLocation(device.getLocation().getId());
             model.addAttribute("openEntries", openEntries);
 
             model.addAttribute("status", openEntries.isEmpty() ? "NOT_CLOCKED_IN" : "CLOCKED_IN");
             if (!openEntries.isEmpty()) {
                 var entry = openEntries.get(0);
-                model.addAttribute("clockedInEmployeeName", entry.getEmployee().getFullName());
-                model.addAttribute("clockInTime", entry.getClockInTime());
-                Duration running = Duration.between(entry.getClockInTime(), Instant.now(clock));
+                model.addAttribute("clockedInEmployeeName", entry.employeeName());
+                model.addAttribute("clockInTime", entry.clockInTime());
+                Duration running = Duration.between(entry.clockInTime(), Instant.now(clock));
                 model.addAttribute("runningTime", formatDuration(running));
             }
 
@@ -75,20 +86,24 @@ public class ClockController {
     @PostMapping("/clock/clock-in")
     public String clockIn(HttpServletRequest request, HttpServletResponse response,
                           @RequestParam("pin") String pin,
+                          @RequestParam(value = "requestToken", required = false) String requestToken,
                           RedirectAttributes redirectAttributes) {
         String deviceUuid = deviceCookieService.readDeviceUuid(request)
             .orElseGet(() -> deviceCookieService.ensureDeviceUuidCookie(response));
 
         Device device = deviceService.requireActiveRegisteredDevice(deviceUuid);
+        String clientIp = request.getRemoteAddr();
         try {
-            String key = deviceUuid;
-            pinAttemptService.checkAllowed(key);
-            var result = timeClockService.clockIn(device, pin);
-            pinAttemptService.recordSuccess(key);
-            redirectAttributes.addAttribute("clockInMessage", "Clock-in successful: " + result.employeeName() +
-                " | In: " + formatInstant(result.clockInTime()));
+            pinAttemptService.checkAllowed(deviceUuid, clientIp);
+            var result = timeClockService.clockIn(device, pin, requestToken);
+            pinAttemptService.recordSuccess(deviceUuid, clientIp);
+            redirectAttributes.addAttribute("clockInMessage", clockInMessage(result));
+        } catch (PinVerificationBusyException ex) {
+            redirectAttributes.addAttribute("clockInMessage", ex.getMessage());
+        } catch (InvalidPinException ex) {
+            pinAttemptService.recordFailure(deviceUuid, clientIp);
+            redirectAttributes.addAttribute("clockInMessage", ex.getMessage());
         } catch (RuntimeException ex) {
-            try { pinAttemptService.recordFailure(deviceUuid); } catch (Exception ignored) {}
             redirectAttributes.addAttribute("clockInMessage", ex.getMessage());
         }
         return "redirect:/clock";
@@ -97,23 +112,24 @@ public class ClockController {
     @PostMapping("/clock/clock-out")
     public String clockOut(HttpServletRequest request, HttpServletResponse response,
                            @RequestParam("pin") String pin,
+                           @RequestParam(value = "requestToken", required = false) String requestToken,
                            RedirectAttributes redirectAttributes) {
         String deviceUuid = deviceCookieService.readDeviceUuid(request)
             .orElseGet(() -> deviceCookieService.ensureDeviceUuidCookie(response));
 
         Device device = deviceService.requireActiveRegisteredDevice(deviceUuid);
+        String clientIp = request.getRemoteAddr();
         try {
-            String key = deviceUuid;
-            pinAttemptService.checkAllowed(key);
-            var result = timeClockService.clockOut(device, pin);
-            pinAttemptService.recordSuccess(key);
-            Duration shift = Duration.between(result.clockInTime(), result.clockOutTime());
-            redirectAttributes.addAttribute("clockOutMessage", "Clock-out successful: " + result.employeeName() +
-                " | In: " + formatInstant(result.clockInTime()) +
-                " | Out: " + formatInstant(result.clockOutTime()) +
-                " | Worked: " + formatDuration(shift));
+            pinAttemptService.checkAllowed(deviceUuid, clientIp);
+            var result = timeClockService.clockOut(device, pin, requestToken);
+            pinAttemptService.recordSuccess(deviceUuid, clientIp);
+            redirectAttributes.addAttribute("clockOutMessage", clockOutMessage(result));
+        } catch (PinVerificationBusyException ex) {
+            redirectAttributes.addAttribute("clockOutMessage", ex.getMessage());
+        } catch (InvalidPinException ex) {
+            pinAttemptService.recordFailure(deviceUuid, clientIp);
+            redirectAttributes.addAttribute("clockOutMessage", ex.getMessage());
         } catch (RuntimeException ex) {
-            try { pinAttemptService.recordFailure(deviceUuid); } catch (Exception ignored) {}
             redirectAttributes.addAttribute("clockOutMessage", ex.getMessage());
         }
         return "redirect:/clock";
@@ -125,33 +141,30 @@ public class ClockController {
             .orElseGet(() -> deviceCookieService.ensureDeviceUuidCookie(response));
 
         model.addAttribute("serverEpochMillis", Instant.now(clock).toEpochMilli());
+        model.addAttribute("requestToken", UUID.randomUUID().toString());
 
         try {
             Device device = deviceService.requireActiveRegisteredDevice(deviceUuid);
             model.addAttribute("locationName", device.getLocation().getName());
 
-            var openEntries = timeEntryRepository.findOpenByLocationWithEmployee(device.getLocation());
+            var openEntries = openShiftRegistry.findByLocation(device.getLocation().getId());
             model.addAttribute("openEntries", openEntries);
-            var zone = ZoneId.of("UTC");
-            LocalDate today = LocalDate.now(zone);
-            Instant start = today.atStartOfDay(zone).toInstant();
-            Instant end = today.plusDays(1).atStartOfDay(zone).toInstant();
+            Instant now = Instant.now(clock);
+            LocalDate today = DailyTotalsService.dayOf(now);
 
             model.addAttribute("status", "NOT_CLOCKED_IN");
 
             if (!openEntries.isEmpty()) {
                 var entry = openEntries.get(0);
                 model.addAttribute("status", "CLOCKED_IN");
-                model.addAttribute("clockInTime", entry.getClockInTime());
+                model.addAttribute("clockInTime", entry.clockInTime());
 
-                Duration running = Duration.between(entry.getClockInTime(), Instant.now(clock));
+                Duration running = Duration.between(entry.clockInTime(), now);
                 model.addAttribute("runningTime", formatDuration(running));
 
-                var todays = timeEntryRepository.findByEmployeeBetween(entry.getEmployee(), start, end);
-                Duration total = Duration.ZERO;
-                for (var t : todays) {
-                    Instant out = t.getClockOutTime() == null ? Instant.now(clock) : t.getClockOutTime();
-                    total = total.plus(Duration.between(t.getClockInTime(), out));
+                Duration total = dailyTotalsService.completedOn(entry.employeeId(), today);
+                if (DailyTotalsService.dayOf(entry.clockInTime()).equals(today)) {
+                    total = total.plus(running);
                 }
                 model.addAttribute("hoursToday", formatDuration(total));
             }
@@ -165,7 +178,20 @@ public class ClockController {
         }
     }
 
-    private String formatDuration(Duration d) {
+    static String clockInMessage(TimeClockService.ClockResult result) {
+        return "Clock-in successful: " + result.employeeName() +
+            " | In: " + formatInstant(result.clockInTime());
+    }
+
+    static String clockOutMessage(TimeClockService.ClockOutResult result) {
+        Duration shift = Duration.between(result.clockInTime(), result.clockOutTime());
+        return "Clock-out successful: " + result.employeeName() +
+            " | In: " + formatInstant(result.clockInTime()) +
+            " | Out: " + formatInstant(result.clockOutTime()) +
+            " | Worked: " + formatDuration(shift);
+    }
+
+    static String formatDuration(Duration d) {
         long seconds = d.getSeconds();
         long h = seconds / 3600;
         long m = (seconds % 3600) / 60;
@@ -173,7 +199,7 @@ public class ClockController {
         return String.format("%02d:%02d:%02d", h, m, s);
     }
 
-    private String formatInstant(Instant instant) {
+    static String formatInstant(Instant instant) {
         if (instant == null) {
             return "-";
         }
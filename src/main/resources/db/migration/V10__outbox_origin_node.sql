@@ -0,0 +1,5 @@
+-- Node that wrote the event, so a node can skip events it already applied locally.
+ALTER TABLE outbox_events ADD COLUMN origin_node VARCHAR(64) NULL;
+
+-- Cursors are now kept per consumer and node ("consumer@node").
+ALTER TABLE outbox_cursors ALTER COLUMN consumer TYPE VARCHAR(128);
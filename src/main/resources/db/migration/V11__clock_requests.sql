@@ -0,0 +1,9 @@
+-- Outcome of each clock request that carried a requestToken, written in the punch's own transaction so a retry that
+-- reaches another node is answered with it instead of punching again.
+CREATE TABLE clock_requests (
+    request_key VARCHAR(200) NOT NULL PRIMARY KEY,
+    outcome VARCHAR(1000) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_clock_requests_created_at ON clock_requests(created_at);
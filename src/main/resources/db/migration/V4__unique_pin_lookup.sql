@@ -0,0 +1,11 @@
+ALTER TABLE employees ADD COLUMN pin_reissue_required BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE employees SET pin_lookup = NULL, pin_reissue_required = TRUE
+WHERE id IN (
+    SELECT e.id FROM employees e
+    JOIN employees o ON o.pin_lookup = e.pin_lookup AND o.id < e.id
+);
+
+DROP INDEX idx_employees_pin_lookup;
+
+CREATE UNIQUE INDEX uk_employees_pin_lookup ON employees(pin_lookup);
@@ -0,0 +1,10 @@
+-- Older duplicate open shifts are closed at their own clock-in so an admin can correct them from the edit page.
+UPDATE time_entries SET clock_out_time = clock_in_time, edited = TRUE,
+    edit_reason = 'Closed automatically: duplicate open shift'
+WHERE id IN (
+    SELECT t.id FROM time_entries t
+    JOIN time_entries n ON n.employee_id = t.employee_id AND n.id > t.id AND n.clock_out_time IS NULL
+    WHERE t.clock_out_time IS NULL
+);
+
+CREATE UNIQUE INDEX uk_time_entries_one_open ON time_entries(employee_id) WHERE clock_out_time IS NULL;
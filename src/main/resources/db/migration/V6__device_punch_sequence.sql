@@ -0,0 +1,2 @@
+-- Highest offline punch sequence applied per kiosk, so a re-sent batch is applied only once.
+ALTER TABLE devices ADD COLUMN last_punch_sequence BIGINT NOT NULL DEFAULT 0;
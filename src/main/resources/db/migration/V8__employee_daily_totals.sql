@@ -0,0 +1,12 @@
+CREATE TABLE employee_daily_totals (
+    employee_id BIGINT NOT NULL REFERENCES employees(id),
+    work_date DATE NOT NULL,
+    worked_seconds BIGINT NOT NULL,
+    PRIMARY KEY (employee_id, work_date)
+);
+
+INSERT INTO employee_daily_totals (employee_id, work_date, worked_seconds)
+SELECT employee_id, CAST(clock_in_time AS DATE), SUM(CAST(EXTRACT(EPOCH FROM (clock_out_time - clock_in_time)) AS BIGINT))
+FROM time_entries
+WHERE clock_out_time IS NOT NULL
+GROUP BY employee_id, CAST(clock_in_time AS DATE);
@@ -0,0 +1,18 @@
+-- Clock and edit events, written in the same transaction as the change and relayed to consumers afterwards.
+CREATE TABLE outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(40) NOT NULL,
+    location_id BIGINT NULL,
+    time_entry_id BIGINT NULL,
+    payload VARCHAR(2000) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_outbox_events_created_at ON outbox_events(created_at);
+
+-- Highest outbox event id each consumer has finished with.
+CREATE TABLE outbox_cursors (
+    consumer VARCHAR(64) NOT NULL PRIMARY KEY,
+    last_event_id BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,9 @@
+-- Outcome of each clock request that carried a requestToken, written in the punch's own transaction so a retry that
+-- reaches another node is answered with it instead of punching again.
+CREATE TABLE clock_requests (
+    request_key VARCHAR(200) NOT NULL,
+    outcome VARCHAR(1000) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (request_key),
+    KEY idx_clock_requests_created_at (created_at)
+);
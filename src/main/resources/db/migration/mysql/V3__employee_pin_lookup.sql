@@ -0,0 +1,3 @@
+ALTER TABLE employees ADD COLUMN pin_lookup VARCHAR(64) NULL;
+
+CREATE INDEX idx_employees_pin_lookup ON employees(pin_lookup);
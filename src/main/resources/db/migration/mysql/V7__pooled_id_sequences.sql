@@ -0,0 +1,12 @@
+-- Pooled id blocks for the table generators on Employee, TimeEntry and TimeEntryAudit (allocationSize = 50).
+-- Hibernate hands out ids (next_val - 49 .. next_val] from the first row it reads, so each seed leaves a full block
+-- of headroom above the current maximum id.
+CREATE TABLE id_sequences (
+    sequence_name VARCHAR(64) NOT NULL,
+    next_val BIGINT NOT NULL,
+    PRIMARY KEY (sequence_name)
+);
+
+INSERT INTO id_sequences (sequence_name, next_val) SELECT 'employees', COALESCE(MAX(id), 0) + 50 FROM employees;
+INSERT INTO id_sequences (sequence_name, next_val) SELECT 'time_entries', COALESCE(MAX(id), 0) + 50 FROM time_entries;
+INSERT INTO id_sequences (sequence_name, next_val) SELECT 'time_entry_audits', COALESCE(MAX(id), 0) + 50 FROM time_entry_audits;
@@ -0,0 +1,13 @@
+CREATE TABLE employee_daily_totals (
+    employee_id BIGINT NOT NULL,
+    work_date DATE NOT NULL,
+    worked_seconds BIGINT NOT NULL,
+    PRIMARY KEY (employee_id, work_date),
+    CONSTRAINT fk_employee_daily_totals_employee FOREIGN KEY (employee_id) REFERENCES employees(id)
+);
+
+INSERT INTO employee_daily_totals (employee_id, work_date, worked_seconds)
+SELECT employee_id, CAST(clock_in_time AS DATE), SUM(TIMESTAMPDIFF(SECOND, clock_in_time, clock_out_time))
+FROM time_entries
+WHERE clock_out_time IS NOT NULL
+GROUP BY employee_id, CAST(clock_in_time AS DATE);
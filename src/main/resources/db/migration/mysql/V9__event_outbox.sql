@@ -0,0 +1,19 @@
+-- Clock and edit events, written in the same transaction as the change and relayed to consumers afterwards.
+CREATE TABLE outbox_events (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    event_type VARCHAR(40) NOT NULL,
+    location_id BIGINT NULL,
+    time_entry_id BIGINT NULL,
+    payload VARCHAR(2000) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_outbox_events_created_at (created_at)
+);
+
+-- Highest outbox event id each consumer has finished with.
+CREATE TABLE outbox_cursors (
+    consumer VARCHAR(64) NOT NULL,
+    last_event_id BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (consumer)
+);
@@ -86,3 +86,112 @@ function formatDuration(ms) {
   const s = totalSeconds % 60;
   return `${String(h).padStart(2, '0')}:${String(m).padStart(2, '0')}:${String(s).padStart(2, '0')}`;
 }
+
+// Live reports: the admin stream sends one "shift" message per clock or edit event. A live report keeps the shifts
+// of its last fetch and applies those messages locally, recomputing hours and totals without asking the server.
+// The window is [startMs, endMs) in epoch millis.
+function createLiveReport(windowStartMs, windowEndMs) {
+  return { windowStartMs, windowEndMs, shifts: [], skewMs: 0, loaded: false, pending: [], etag: null };
+}
+
+// Fetches the report data unless the server says the copy already loaded (kept current by deltas) is still good.
+// Resolves to true when new data was loaded, false on 304; rejects on any other failure.
+async function fetchLiveReport(report, url) {
+  const headers = { 'Accept': 'application/json' };
+  if (report.loaded && report.etag) {
+    headers['If-None-Match'] = report.etag;
+  }
+  const res = await fetch(url, { method: 'GET', credentials: 'same-origin', cache: 'no-store', headers });
+  if (res.status === 304) {
+    return false;
+  }
+  if (!res.ok) {
+    throw new Error(`HTTP ${res.status}`);
+  }
+  const ct = (res.headers.get('content-type') || '').toLowerCase();
+  if (!ct.includes('application/json')) {
+    throw new Error('Non-JSON response');
+  }
+  const etag = res.headers.get('ETag');
+  loadLiveReport(report, await res.json());
+  report.etag = etag;
+  return true;
+}
+
+function loadLiveReport(report, data) {
+  report.shifts = (data.shifts || []).slice();
+  report.skewMs = (data.serverNowEpochMillis || Date.now()) - Date.now();
+  report.loaded = true;
+  // Deltas received while fetching may or may not be in the data; applying one twice is harmless.
+  const pending = report.pending;
+  report.pending = [];
+  pending.forEach((d) => applyLiveReportDelta(report, d));
+}
+
+function applyLiveReportDelta(report, delta) {
+  if (!report.loaded) {
+    report.pending.push(delta);
+    return;
+  }
+  report.shifts = report.shifts.filter((s) => s.timeEntryId !== delta.timeEntryId);
+
+  const inMs = delta.clockInEpochMillis;
+  const outMs = delta.clockOutEpochMillis === undefined ? null : delta.clockOutEpochMillis;
+  if (inMs >= report.windowEndMs || (outMs !== null && outMs <= report.windowStartMs)) {
+    return;
+  }
+  report.shifts.push({
+    timeEntryId: delta.timeEntryId,
+    employeeId: delta.employeeId,
+    employeeName: delta.employeeName,
+    day: new Date(inMs).toISOString().slice(0, 10),
+    clockInEpochMillis: inMs,
+    clockOutEpochMillis: outMs,
+    workedSeconds: 0,
+    completed: outMs !== null
+  });
+}
+
+// Same shape as the report endpoints: { totals, shifts }, with hours clipped to the window.
+function liveReportView(report) {
+  const nowMs = Date.now() + report.skewMs;
+  const byEmployee = new Map();
+
+  const shifts = report.shifts.map((s) => {
+    const endMs = s.completed ? s.clockOutEpochMillis : nowMs;
+    const clipStart = Math.max(s.clockInEpochMillis, report.windowStartMs);
+    const clipEnd = Math.min(endMs, report.windowEndMs);
+    const workedMs = Math.max(0, clipEnd - clipStart);
+
+    const t = byEmployee.get(s.employeeId) || { employeeName: s.employeeName, completedMs: 0, liveMs: 0 };
+    t.liveMs += workedMs;
+    if (s.completed) {
+      t.completedMs += workedMs;
+    }
+    byEmployee.set(s.employeeId, t);
+
+    return Object.assign({}, s, { workedSeconds: Math.floor(workedMs / 1000) });
+  });
+
+  shifts.sort((a, b) => (b.clockInEpochMillis - a.clockInEpochMillis)
+    || a.employeeName.localeCompare(b.employeeName, undefined, { sensitivity: 'base' }));
+
+  const totals = Array.from(byEmployee.entries()).map(([employeeId, t]) => ({
+    employeeId,
+    employeeName: t.employeeName,
+    completedTotalFormatted: formatHoursMinutes(t.completedMs),
+    liveTotalFormatted: formatHoursMinutes(t.liveMs)
+  }));
+  totals.sort((a, b) => a.employeeName.localeCompare(b.employeeName, undefined, { sensitivity: 'base' }));
+
+  return { totals, shifts };
+}
+
+function formatHoursMinutes(ms) {
+  const totalMinutes = Math.floor(ms / 60000);
+  return `${Math.floor(totalMinutes / 60)}:${String(totalMinutes % 60).padStart(2, '0')}`;
+}
+
+function utcDayStartMillis(isoDate) {
+  return Date.parse(`${isoDate}T00:00:00Z`);
+}
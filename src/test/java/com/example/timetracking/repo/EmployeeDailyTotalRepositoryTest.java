@@ -0,0 +1,97 @@
+package com.example.timetracking.repo;
+
+import com.example.timetracking.model.Employee;
+import com.example.timetracking.model.EmployeeDailyTotal;
+import com.example.timetracking.model.EmployeeRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:daily-totals;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+    "spring.datasource.username=sa",
+    "spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmployeeDailyTotalRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+
+    @Autowired
+    private EmployeeDailyTotalRepository repository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long employeeId;
+
+    @BeforeEach
+    void setUp() {
+        Employee employee = new Employee();
+        employee.setFullName("Daily Totals " + System.nanoTime());
+        employee.setPinHash("x");
+        employee.setRole(EmployeeRole.EMPLOYEE);
+        employeeId = employeeRepository.save(employee).getId();
+    }
+
+    @Test
+    void firstAddCreatesTheRowAndLaterAddsAccumulate() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        tx.executeWithoutResult(status -> repository.addSeconds(employeeId, DAY, 3600));
+        tx.executeWithoutResult(status -> repository.addSeconds(employeeId, DAY, 1800));
+        tx.executeWithoutResult(status -> repository.addSeconds(employeeId, DAY, -600));
+
+        assertThat(workedSeconds()).isEqualTo(4800);
+    }
+
+    @Test
+    void concurrentFirstAddsForTheSameDayAreAllCounted() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    new TransactionTemplate(transactionManager)
+                        .executeWithoutResult(status -> repository.addSeconds(employeeId, DAY, 60));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(workedSeconds()).isEqualTo(threads * 60L);
+    }
+
+    private long workedSeconds() {
+        return repository.findById(new EmployeeDailyTotal.Key(employeeId, DAY)).orElseThrow().getWorkedSeconds();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.timetracking.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalibratedBCryptPasswordEncoderTest {
+
+    private static final String SALT_AND_HASH = "abcdefghijklmnopqrstuuJ0Gd7Yj5n0B8tZ3bGkX3b5m8t1l3x4y";
+
+    private final CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(10);
+
+    @Test
+    void weakerHashesAreUpgraded() {
+        assertThat(encoder.upgradeEncoding("$2a$08$" + SALT_AND_HASH)).isTrue();
+    }
+
+    @Test
+    void strongerHashesAreDowngraded() {
+        assertThat(encoder.upgradeEncoding("$2b$12$" + SALT_AND_HASH)).isTrue();
+    }
+
+    @Test
+    void hashesAtTheCalibratedCostAreKept() {
+        assertThat(encoder.upgradeEncoding("$2a$10$" + SALT_AND_HASH)).isFalse();
+    }
+
+    @Test
+    void calibrationNeverGoesBelowTheMinimum() {
+        CalibratedBCryptPasswordEncoder calibrated = CalibratedBCryptPasswordEncoder.calibrate(4, 5, Duration.ZERO);
+
+        assertThat(calibrated.getStrength()).isEqualTo(4);
+        assertThat(calibrated.upgradeEncoding("$2a$04$" + SALT_AND_HASH)).isFalse();
+    }
+
+    @Test
+    void missingOrUnrecognisedHashesAreNotUpgraded() {
+        assertThat(encoder.upgradeEncoding(null)).isFalse();
+        assertThat(encoder.upgradeEncoding("")).isFalse();
+        assertThat(encoder.upgradeEncoding("{noop}1234")).isFalse();
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.timetracking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class AdminSseServiceTest {
+
+    private static final int QUEUE_CAPACITY = 4;
+
+    private final AdminSseService service = new AdminSseService(2, QUEUE_CAPACITY, 10_000, 100) {
+        @Override
+        SseEmitter newEmitter() {
+            return new RecordingEmitter();
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void slowSubscriberDoesNotHoldUpBroadcastsOrOthers() {
+        RecordingEmitter slow = subscribe(Set.of());
+        RecordingEmitter fast = subscribe(Set.of());
+        slow.block();
+
+        service.broadcast("shift", "a", 1, AdminSseService.TOPIC_OPEN_SHIFTS);
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> fast.names().contains("shift"));
+        assertThat(slow.names()).doesNotContain("shift");
+
+        slow.unblock();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> slow.names().contains("shift"));
+    }
+
+    @Test
+    void identicalEventStillQueuedIsSentOnce() {
+        RecordingEmitter emitter = subscribe(Set.of());
+        emitter.block();
+
+        service.broadcast("shift", "in-flight", 1, AdminSseService.TOPIC_OPEN_SHIFTS);
+        service.broadcast("shift", "same", 1, AdminSseService.TOPIC_OPEN_SHIFTS);
+        service.broadcast("shift", "same", 1, AdminSseService.TOPIC_OPEN_SHIFTS);
+        emitter.unblock();
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> emitter.data().size() == 3);
+        assertThat(emitter.data()).containsExactly("ok", "in-flight", "same");
+    }
+
+    @Test
+    void subscriberWhoseQueueOverflowsIsDisconnected() {
+        RecordingEmitter emitter = subscribe(Set.of());
+        emitter.block();
+
+        for (int i = 0; i <= QUEUE_CAPACITY + 1; i++) {
+            service.broadcast("shift", "event-" + i, 1, AdminSseService.TOPIC_OPEN_SHIFTS);
+        }
+
+        assertThat(emitter.completed).isTrue();
+        emitter.unblock();
+    }
+
+    @Test
+    void broadcastOnlyReachesSubscribersOfTheTopicAndLocation() {
+        RecordingEmitter atOne = subscribe(Set.of(1L));
+        RecordingEmitter atTwo = subscribe(Set.of(2L));
+
+        service.broadcast("shift", "a", 1, AdminSseService.TOPIC_OPEN_SHIFTS);
+        service.broadcast("report", "b", 1, AdminSseService.TOPIC_REPORTS);
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> atOne.names().contains("shift"));
+        assertThat(atOne.names()).containsExactly("connected", "shift");
+        assertThat(atTwo.names()).containsExactly("connected");
+    }
+
+    @Test
+    void resumeWithinTheBufferReplaysWhatWasMissedThenSaysResumed() {
+        RecordingEmitter first = subscribe(Set.of());
+        service.broadcast("shift", "a", 1, AdminSseService.TOPIC_OPEN_SHIFTS);
+        service.broadcast("shift", "b", 2, AdminSseService.TOPIC_OPEN_SHIFTS);
+        service.broadcast("report", "c", 1, AdminSseService.TOPIC_REPORTS);
+        service.broadcast("shift", "d", 1, AdminSseService.TOPIC_OPEN_SHIFTS);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> first.data().contains("d"));
+        long afterA = Long.parseLong(first.ids().get(0));
+
+        RecordingEmitter resumed = (RecordingEmitter) service.subscribe(
+            Set.of(AdminSseService.TOPIC_OPEN_SHIFTS), Set.of(1L), afterA);
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> resumed.names().contains("resumed"));
+        assertThat(resumed.data()).containsExactly("d", "ok");
+        assertThat(resumed.names()).containsExactly("shift", "resumed");
+    }
+
+    @Test
+    void resumeFromAnUnknownIdStartsOver() {
+        service.broadcast("shift", "a", 1, AdminSseService.TOPIC_OPEN_SHIFTS);
+
+        // An id from before a restart: far below the ids this instance hands out.
+        RecordingEmitter emitter = (RecordingEmitter) service.subscribe(
+            Set.of(AdminSseService.TOPIC_OPEN_SHIFTS), Set.of(), 42L);
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !emitter.names().isEmpty());
+        assertThat(emitter.names()).containsExactly("connected");
+    }
+
+    @Test
+    void resumeOlderThanTheBufferStartsOver() {
+        AdminSseService small = new AdminSseService(1, QUEUE_CAPACITY, 10_000, 2) {
+            @Override
+            SseEmitter newEmitter() {
+                return new RecordingEmitter();
+            }
+        };
+        try {
+            RecordingEmitter watcher = (RecordingEmitter) small.subscribe(
+                Set.of(AdminSseService.TOPIC_OPEN_SHIFTS), Set.of(), null);
+            for (int i = 0; i < 3; i++) {
+                small.broadcast("shift", "event-" + i, 1, AdminSseService.TOPIC_OPEN_SHIFTS);
+            }
+            await().atMost(5, TimeUnit.SECONDS).until(() -> watcher.data().contains("event-2"));
+            long first = Long.parseLong(watcher.ids().get(0));
+
+            RecordingEmitter tooOld = (RecordingEmitter) small.subscribe(
+                Set.of(AdminSseService.TOPIC_OPEN_SHIFTS), Set.of(), first - 1);
+            await().atMost(5, TimeUnit.SECONDS).until(() -> !tooOld.names().isEmpty());
+            assertThat(tooOld.names()).containsExactly("connected");
+        } finally {
+            small.shutdown();
+        }
+    }
+
+    @Test
+    void resumeTooLargeForTheQueueStartsOver() {
+        RecordingEmitter watcher = subscribe(Set.of());
+        for (int i = 0; i < QUEUE_CAPACITY + 1; i++) {
+            String data = "event-" + i;
+            service.broadcast("shift", data, 1, AdminSseService.TOPIC_OPEN_SHIFTS);
+            await().atMost(5, TimeUnit.SECONDS).until(() -> watcher.data().contains(data));
+        }
+        long beforeAll = Long.parseLong(watcher.ids().get(0)) - 1;
+
+        RecordingEmitter tooMany = (RecordingEmitter) service.subscribe(
+            Set.of(AdminSseService.TOPIC_OPEN_SHIFTS), Set.of(), beforeAll);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !tooMany.names().isEmpty());
+        assertThat(tooMany.names()).containsExactly("connected");
+    }
+
+    @Test
+    void subscriberStuckInASendIsDisconnected() throws InterruptedException {
+        AdminSseService quick = new AdminSseService(1, QUEUE_CAPACITY, 50, 100) {
+            @Override
+            SseEmitter newEmitter() {
+                return new RecordingEmitter();
+            }
+        };
+        try {
+            RecordingEmitter emitter = (RecordingEmitter) quick.subscribe(
+                Set.of(AdminSseService.TOPIC_OPEN_SHIFTS), Set.of(), null);
+            await().atMost(5, TimeUnit.SECONDS).until(() -> emitter.names().contains("connected"));
+            emitter.block();
+            quick.heartbeat();
+            Thread.sleep(100);
+
+            quick.disconnectStuckSubscribers();
+
+            assertThat(emitter.completed).isTrue();
+            emitter.unblock();
+        } finally {
+            quick.shutdown();
+        }
+    }
+
+    @Test
+    void deadConnectionIsDroppedByTheHeartbeat() {
+        RecordingEmitter emitter = subscribe(Set.of());
+        emitter.failSends = true;
+
+        service.heartbeat();
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> emitter.completed);
+        emitter.failSends = false;
+        service.broadcast("shift", "a", 1, AdminSseService.TOPIC_OPEN_SHIFTS);
+        assertThat(emitter.names()).containsExactly("connected");
+    }
+
+    private RecordingEmitter subscribe(Set<Long> locationIds) {
+        RecordingEmitter emitter = (RecordingEmitter) service.subscribe(
+            Set.of(AdminSseService.TOPIC_OPEN_SHIFTS), locationIds, null);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> emitter.names().contains("connected"));
+        return emitter;
+    }
+
+    /**
+     * Records sent events as their SSE text. {@link #block()} stalls sends until {@link #unblock()}, like a browser
+     * that stopped reading; {@code failSends} makes them fail, like a connection that died.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+        private volatile boolean completed;
+        private volatile boolean failSends;
+
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void unblock() {
+            gate.countDown();
+        }
+
+        List<String> names() {
+            return field("event:");
+        }
+
+        List<String> data() {
+            return field("data:");
+        }
+
+        List<String> ids() {
+            return field("id:");
+        }
+
+        private List<String> field(String prefix) {
+            return sent.stream()
+                .flatMap(text -> text.lines().filter(line -> line.startsWith(prefix)))
+                .map(line -> line.substring(prefix.length()))
+                .toList();
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failSends) {
+                throw new IOException("Broken pipe");
+            }
+            try {
+                gate.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            sent.add(builder.build().stream()
+                .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                .map(String::valueOf)
+                .collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
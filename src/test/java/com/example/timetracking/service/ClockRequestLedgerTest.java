@@ -0,0 +1,86 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.MutableClock;
+import com.example.timetracking.model.ClockRequest;
+import com.example.timetracking.repo.ClockRequestRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClockRequestLedgerTest {
+
+    private static final String KEY = "in:1:token:lookup";
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-05T10:00:00Z"));
+    private final ClockRequestRepository repository = mock(ClockRequestRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ClockRequestLedger ledger = new ClockRequestLedger(repository, objectMapper, clock, 600, 100, 1000);
+    private final AtomicInteger runs = new AtomicInteger();
+
+    private final TimeClockService.ClockResult original =
+        new TimeClockService.ClockResult("Alice Smith", Instant.parse("2026-01-05T09:59:00Z"));
+
+    @Test
+    void repeatsOnThisNodeAreAnsweredWithoutRunningAgain() {
+        when(repository.findByRequestKeyAndCreatedAtAfter(eq(KEY), any())).thenReturn(Optional.empty());
+
+        assertThat(ledger.execute(KEY, TimeClockService.ClockResult.class, this::punch)).isEqualTo(original);
+        assertThat(ledger.execute(KEY, TimeClockService.ClockResult.class, this::punch)).isEqualTo(original);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void anOutcomeRecordedOnAnotherNodeIsReplayed() throws Exception {
+        when(repository.findByRequestKeyAndCreatedAtAfter(eq(KEY), any())).thenReturn(Optional.of(recorded()));
+
+        assertThat(ledger.execute(KEY, TimeClockService.ClockResult.class, this::punch)).isEqualTo(original);
+        assertThat(runs).hasValue(0);
+    }
+
+    @Test
+    void aRetryThatLosesToAnotherNodeGetsItsOutcome() throws Exception {
+        when(repository.findByRequestKeyAndCreatedAtAfter(eq(KEY), any()))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(recorded()));
+
+        TimeClockService.ClockResult result = ledger.execute(KEY, TimeClockService.ClockResult.class, () -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("You are already clocked in.");
+        });
+
+        assertThat(result).isEqualTo(original);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void failuresWithNothingRecordedAreRethrown() {
+        when(repository.findByRequestKeyAndCreatedAtAfter(eq(KEY), any())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> ledger.execute(KEY, TimeClockService.ClockResult.class, () -> {
+            throw new IllegalStateException("No open shift found.");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("No open shift found.");
+    }
+
+    private TimeClockService.ClockResult punch() {
+        runs.incrementAndGet();
+        return original;
+    }
+
+    private ClockRequest recorded() throws Exception {
+        ClockRequest request = new ClockRequest();
+        request.setRequestKey(KEY);
+        request.setOutcome(objectMapper.writeValueAsString(original));
+        request.setCreatedAt(clock.instant());
+        return request;
+    }
+}
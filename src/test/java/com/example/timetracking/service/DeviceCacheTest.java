@@ -0,0 +1,93 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.MutableClock;
+import com.example.timetracking.model.Device;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeviceCacheTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-05T10:00:00Z"));
+    private final DeviceCache cache = new DeviceCache(clock, 300, 30, 100, 2);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void hitsDoNotReload() {
+        Device device = device("kiosk-1");
+
+        assertThat(cache.get("kiosk-1", loader(Optional.of(device)))).contains(device);
+        assertThat(cache.get("kiosk-1", loader(Optional.of(device)))).contains(device);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void unknownUuidsAreCachedOnlyForTheNegativeTtl() {
+        assertThat(cache.get("nope", loader(Optional.empty()))).isEmpty();
+        assertThat(cache.get("nope", loader(Optional.empty()))).isEmpty();
+        assertThat(loads).hasValue(1);
+
+        clock.advance(Duration.ofSeconds(30));
+        assertThat(cache.get("nope", loader(Optional.empty()))).isEmpty();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void unknownUuidsDoNotPushOutRealDevices() {
+        Device device = device("kiosk-1");
+        cache.get("kiosk-1", loader(Optional.of(device)));
+        for (int i = 0; i < 10; i++) {
+            cache.get("random-" + i, loader(Optional.empty()));
+        }
+        loads.set(0);
+
+        assertThat(cache.get("kiosk-1", loader(Optional.of(device)))).contains(device);
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void loadThatRacesAnEvictionIsNotCached() {
+        Device stale = device("kiosk-1");
+        Function<String, Optional<Device>> racingLoader = uuid -> {
+            loads.incrementAndGet();
+            // The device is re-registered while its old row is being read.
+            cache.evict(uuid);
+            return Optional.of(stale);
+        };
+
+        assertThat(cache.get("kiosk-1", racingLoader)).contains(stale);
+
+        Device fresh = device("kiosk-1");
+        assertThat(cache.get("kiosk-1", loader(Optional.of(fresh)))).contains(fresh);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void evictDropsACachedNegative() {
+        cache.get("kiosk-1", loader(Optional.empty()));
+        cache.evict("kiosk-1");
+
+        Device device = device("kiosk-1");
+        assertThat(cache.get("kiosk-1", loader(Optional.of(device)))).contains(device);
+        assertThat(loads).hasValue(2);
+    }
+
+    private Function<String, Optional<Device>> loader(Optional<Device> result) {
+        return uuid -> {
+            loads.incrementAndGet();
+            return result;
+        };
+    }
+
+    private static Device device(String uuid) {
+        Device device = new Device();
+        device.setDeviceUuid(uuid);
+        return device;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.Employee;
+import com.example.timetracking.model.EmployeeRole;
+import com.example.timetracking.repo.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmployeeDirectoryTest {
+
+    private final EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+    private final EmployeeDirectory directory = new EmployeeDirectory(employeeRepository);
+
+    @Test
+    void searchesByWordPrefixAndPagesByKeyset() {
+        when(employeeRepository.findAll()).thenReturn(List.of(
+            employee(1, "Alice Smith"), employee(2, "Bob Smithers"), employee(3, "Carol Jones")));
+        directory.reload();
+
+        EmployeeDirectory.Page first = directory.search("smi", null, null, null, 1);
+        assertThat(first.rows()).extracting(EmployeeDirectory.Entry::fullName).containsExactly("Alice Smith");
+
+        EmployeeDirectory.Page second = directory.search("smi", null, null, first.nextAfter(), 1);
+        assertThat(second.rows()).extracting(EmployeeDirectory.Entry::fullName).containsExactly("Bob Smithers");
+        assertThat(second.nextAfter()).isNull();
+    }
+
+    @Test
+    void changeCommittedWhileAReloadIsReadingIsKept() {
+        when(employeeRepository.findAll()).thenAnswer(inv -> {
+            // Committed on this node after the reload's read started, so the read does not include it.
+            directory.track(employee(2, "Bob Renamed"));
+            return List.of(employee(1, "Alice Smith"), employee(2, "Bob Smithers"));
+        });
+
+        directory.reload();
+
+        assertThat(directory.search("bob", null, null, null, 10).rows())
+            .extracting(EmployeeDirectory.Entry::fullName)
+            .containsExactly("Bob Renamed");
+    }
+
+    @Test
+    void failedReloadKeepsTheCurrentDirectory() {
+        when(employeeRepository.findAll())
+            .thenReturn(List.of(employee(1, "Alice Smith")))
+            .thenThrow(new IllegalStateException("database down"));
+        directory.reload();
+
+        assertThatThrownBy(directory::reload).isInstanceOf(IllegalStateException.class);
+
+        assertThat(directory.search(null, null, null, 1L, 10).rows()).isEmpty();
+        assertThat(directory.search("alice", null, null, null, 10).rows()).hasSize(1);
+    }
+
+    @Test
+    void badPageSizeOrUnknownCursorIsRejected() {
+        when(employeeRepository.findAll()).thenReturn(List.of(employee(1, "Alice Smith")));
+        directory.reload();
+
+        assertThatThrownBy(() -> directory.search(null, null, null, null, EmployeeDirectory.MAX_PAGE_SIZE + 1))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> directory.search(null, null, null, 99L, 10))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Employee employee(long id, String name) {
+        Employee e = new Employee();
+        e.setId(id);
+        e.setFullName(name);
+        e.setRole(EmployeeRole.EMPLOYEE);
+        e.setActive(true);
+        return e;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.Employee;
+import com.example.timetracking.model.EmployeeRole;
+import com.example.timetracking.repo.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.Clock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmployeeServiceTest {
+
+    private final EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+    private final PinService pinService = mock(PinService.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private EmployeeService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new EmployeeService(employeeRepository, pinService, mock(VerifiedPinCache.class),
+            mock(EmployeeDirectory.class), transactionTemplate, Clock.systemUTC());
+        ReflectionTestUtils.setField(service, "issueMaxAttempts", 5);
+        when(transactionTemplate.execute(any()))
+            .thenAnswer(inv -> ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null));
+        when(pinService.generatePin()).thenReturn("1111", "2222");
+        when(pinService.lookupKey("1111")).thenReturn("key-1111");
+        when(pinService.lookupKey("2222")).thenReturn("key-2222");
+        when(pinService.hashPin(any())).thenReturn("hash");
+    }
+
+    @Test
+    void lostRaceForALookupKeyIsRetriedWithAFreshPin() {
+        when(employeeRepository.saveAndFlush(any()))
+            .thenThrow(conflict("Duplicate entry 'key-1111' for key 'employees.uk_employees_pin_lookup'"))
+            .thenAnswer(inv -> inv.getArgument(0));
+
+        EmployeeService.CreatedEmployee created = service.createEmployee("Alice", EmployeeRole.EMPLOYEE);
+
+        assertThat(created.rawPin()).isEqualTo("2222");
+        assertThat(created.employee().getPinLookup()).isEqualTo("key-2222");
+        verify(employeeRepository, times(2)).saveAndFlush(any(Employee.class));
+    }
+
+    @Test
+    void otherConstraintViolationsAreNotRetried() {
+        when(employeeRepository.saveAndFlush(any())).thenThrow(conflict("Column 'full_name' cannot be null"));
+
+        assertThatThrownBy(() -> service.createEmployee(null, EmployeeRole.EMPLOYEE))
+            .isInstanceOf(DataIntegrityViolationException.class);
+        verify(employeeRepository, times(1)).saveAndFlush(any(Employee.class));
+    }
+
+    private static DataIntegrityViolationException conflict(String message) {
+        return new DataIntegrityViolationException("could not execute statement",
+            new SQLIntegrityConstraintViolationException(message));
+    }
+}
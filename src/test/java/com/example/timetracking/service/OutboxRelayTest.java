@@ -0,0 +1,178 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.MutableClock;
+import com.example.timetracking.model.OutboxCursor;
+import com.example.timetracking.model.OutboxEvent;
+import com.example.timetracking.repo.OutboxCursorRepository;
+import com.example.timetracking.repo.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-05T10:00:00Z"));
+    private final OutboxEventRepository eventRepository = mock(OutboxEventRepository.class);
+    private final OutboxCursorRepository cursorRepository = mock(OutboxCursorRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    // Committed events by id, and stored cursors by name.
+    private final TreeMap<Long, OutboxEvent> committed = new TreeMap<>();
+    private final Map<String, OutboxCursor> cursors = new HashMap<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(eventRepository.findAfter(anyLong(), any())).thenAnswer(inv -> {
+            long after = inv.getArgument(0);
+            Pageable page = inv.getArgument(1);
+            return committed.tailMap(after, false).values().stream().limit(page.getPageSize()).toList();
+        });
+        when(eventRepository.findIdsBetween(anyLong(), anyLong())).thenAnswer(inv ->
+            new ArrayList<>(committed.subMap(inv.<Long>getArgument(0), true, inv.<Long>getArgument(1), true).keySet()));
+        when(eventRepository.findAllById(any())).thenAnswer(inv -> {
+            List<OutboxEvent> found = new ArrayList<>();
+            inv.<Iterable<Long>>getArgument(0).forEach(id -> Optional.ofNullable(committed.get(id)).ifPresent(found::add));
+            return found;
+        });
+        when(eventRepository.maxId()).thenAnswer(inv -> committed.isEmpty() ? 0L : committed.lastKey());
+        when(cursorRepository.findById(any())).thenAnswer(inv -> Optional.ofNullable(cursors.get(inv.<String>getArgument(0))));
+        when(cursorRepository.save(any())).thenAnswer(inv -> {
+            OutboxCursor c = inv.getArgument(0);
+            cursors.put(c.getConsumer(), c);
+            return c;
+        });
+        doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void eventThatCommitsLateInsideAGapIsStillDelivered() {
+        RecordingConsumer consumer = new RecordingConsumer(OptionalLong.of(0));
+        OutboxRelay relay = relay(consumer);
+        commit(1);
+        commit(3);
+
+        relay.drainAll();
+        assertThat(consumer.received).containsExactly(1L, 3L);
+        assertThat(storedCursor()).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(30));
+        commit(2);
+        relay.drainAll();
+
+        assertThat(consumer.received).containsExactly(1L, 3L, 2L);
+        assertThat(storedCursor()).isEqualTo(3);
+    }
+
+    @Test
+    void gapIsSkippedOnlyAfterTheGrace() {
+        RecordingConsumer consumer = new RecordingConsumer(OptionalLong.of(0));
+        OutboxRelay relay = relay(consumer);
+        commit(1);
+        commit(3);
+        relay.drainAll();
+
+        clock.advance(Duration.ofSeconds(59));
+        relay.drainAll();
+        assertThat(storedCursor()).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(1));
+        relay.drainAll();
+        assertThat(storedCursor()).isEqualTo(3);
+        assertThat(consumer.received).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void consumerThatLoadedItsStateResumesFromItsLoadPosition() {
+        commit(1);
+        commit(2);
+        commit(3);
+        OutboxCursor stored = new OutboxCursor();
+        stored.setConsumer("test@node-a");
+        stored.setLastEventId(3);
+        cursors.put(stored.getConsumer(), stored);
+
+        RecordingConsumer consumer = new RecordingConsumer(OptionalLong.of(1));
+        relay(consumer).drainAll();
+
+        assertThat(consumer.received).containsExactly(2L, 3L);
+        assertThat(storedCursor()).isEqualTo(3);
+    }
+
+    @Test
+    void newConsumerWithoutLoadedStateStartsAtTheEnd() {
+        commit(1);
+        commit(2);
+        RecordingConsumer consumer = new RecordingConsumer(OptionalLong.empty());
+        OutboxRelay relay = relay(consumer);
+
+        relay.drainAll();
+        commit(3);
+        relay.drainAll();
+
+        assertThat(consumer.received).containsExactly(3L);
+    }
+
+    private OutboxRelay relay(OutboxConsumer consumer) {
+        return new OutboxRelay(eventRepository, cursorRepository, List.of(consumer), transactionTemplate, clock,
+            200, 60_000, 24, "node-a");
+    }
+
+    private void commit(long id) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setCreatedAt(Instant.now(clock));
+        committed.put(id, event);
+    }
+
+    private long storedCursor() {
+        return cursors.get("test@node-a").getLastEventId();
+    }
+
+    private static final class RecordingConsumer implements OutboxConsumer {
+        private final OptionalLong startAfter;
+        private final List<Long> received = new ArrayList<>();
+
+        private RecordingConsumer(OptionalLong startAfter) {
+            this.startAfter = startAfter;
+        }
+
+        @Override
+        public String name() {
+            return "test";
+        }
+
+        @Override
+        public void accept(List<OutboxEvent> events) {
+            events.forEach(e -> received.add(e.getId()));
+        }
+
+        @Override
+        public OptionalLong startAfter() {
+            return startAfter;
+        }
+    }
+}
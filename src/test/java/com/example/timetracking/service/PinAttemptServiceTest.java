@@ -0,0 +1,73 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PinAttemptServiceTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-05T10:00:00Z"));
+    private final PinAttemptService attempts =
+        new PinAttemptService(clock, new SimpleMeterRegistry(), 5, 20, 300, 300, 1000);
+
+    @Test
+    void deviceLocksAfterMaxFailuresAndUnlocksAfterTheLockPeriod() {
+        for (int i = 0; i < 4; i++) {
+            attempts.recordFailure("kiosk-1", "10.0.0.1");
+        }
+        assertThatCode(() -> attempts.checkAllowed("kiosk-1", "10.0.0.1")).doesNotThrowAnyException();
+
+        attempts.recordFailure("kiosk-1", "10.0.0.1");
+        assertThatThrownBy(() -> attempts.checkAllowed("kiosk-1", "10.0.0.1"))
+            .isInstanceOf(IllegalStateException.class);
+        assertThatCode(() -> attempts.checkAllowed("kiosk-2", "10.0.0.1")).doesNotThrowAnyException();
+
+        clock.advance(Duration.ofSeconds(301));
+        assertThatCode(() -> attempts.checkAllowed("kiosk-1", "10.0.0.1")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void successClearsTheDeviceButNotTheSharedAddress() {
+        for (int i = 0; i < 4; i++) {
+            attempts.recordFailure("kiosk-1", "10.0.0.1");
+        }
+        attempts.recordSuccess("kiosk-1", "10.0.0.1");
+        attempts.recordFailure("kiosk-1", "10.0.0.1");
+
+        assertThatCode(() -> attempts.checkAllowed("kiosk-1", "10.0.0.1")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void concurrentFailuresFromManyKiosksAreAllCountedAgainstTheirAddress() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 20; i++) {
+            String device = "kiosk-" + i;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                attempts.recordFailure(device, "10.0.0.1");
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> attempts.checkAllowed("kiosk-new", "10.0.0.1"))
+            .isInstanceOf(IllegalStateException.class);
+        assertThatCode(() -> attempts.checkAllowed("kiosk-new", "10.0.0.2")).doesNotThrowAnyException();
+    }
+}
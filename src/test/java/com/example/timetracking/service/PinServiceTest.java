@@ -0,0 +1,40 @@
+package com.example.timetracking.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class PinServiceTest {
+
+    @Test
+    void startupFailsWithoutALookupSecret() {
+        assertThatThrownBy(() -> withSecret("").checkLookupSecret()).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> withSecret(null).checkLookupSecret()).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void startupFailsWithThePublishedPlaceholder() {
+        assertThatThrownBy(() -> withSecret("change-me-pin-lookup-secret").checkLookupSecret())
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void lookupKeyDependsOnTheSecret() {
+        PinService a = withSecret("first-real-secret-value");
+        PinService b = withSecret("second-real-secret-value");
+        assertThatCode(a::checkLookupSecret).doesNotThrowAnyException();
+
+        assertThat(a.lookupKey("1234")).isEqualTo(a.lookupKey("1234")).isNotEqualTo(b.lookupKey("1234"));
+    }
+
+    private static PinService withSecret(String secret) {
+        PinService service = new PinService(mock(PasswordEncoder.class));
+        ReflectionTestUtils.setField(service, "lookupSecret", secret);
+        return service;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.Employee;
+import com.example.timetracking.model.EmployeeRole;
+import com.example.timetracking.repo.EmployeeRepository;
+import com.example.timetracking.repo.TimeEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PinVerificationServiceTest {
+
+    private final EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+    private final PinService pinService = mock(PinService.class);
+    private final PinVerificationExecutor executor = mock(PinVerificationExecutor.class);
+    private final VerifiedPinCache cache =
+        new VerifiedPinCache(Clock.fixed(Instant.parse("2026-01-05T10:00:00Z"), ZoneOffset.UTC), 3600, 100);
+    private PinVerificationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PinVerificationService(employeeRepository, mock(TimeEntryRepository.class), pinService,
+            executor, cache);
+        when(pinService.lookupKey("1111")).thenReturn("old-key");
+        when(employeeRepository.findAllByPinLookupAndActiveIsTrue("old-key")).thenReturn(List.of());
+        when(employeeRepository.findAllByPinLookupIsNullAndActiveIsTrue()).thenReturn(List.of());
+        when(executor.firstMatch(anyList(), any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void cacheHitIsServedWhileTheKeyIsStillTheEmployees() {
+        when(employeeRepository.findById(7L)).thenReturn(Optional.of(employee(7L, "old-key")));
+        cache.put("old-key", 7L);
+
+        assertThat(service.findActiveEmployee("1111")).map(Employee::getId).contains(7L);
+    }
+
+    @Test
+    void oldPinCachedAgainAfterResetIsRejectedAndEvicted() {
+        // A verification of the old PIN finished after the reset committed and re-cached the old key.
+        when(employeeRepository.findById(7L)).thenReturn(Optional.of(employee(7L, "new-key")));
+        cache.put("old-key", 7L);
+
+        assertThat(service.findActiveEmployee("1111")).isEmpty();
+        assertThat(cache.get("old-key")).isEmpty();
+    }
+
+    private static Employee employee(long id, String pinLookup) {
+        Employee e = new Employee();
+        e.setId(id);
+        e.setFullName("Test " + id);
+        e.setRole(EmployeeRole.EMPLOYEE);
+        e.setActive(true);
+        e.setPinHash("hash");
+        e.setPinLookup(pinLookup);
+        return e;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.timetracking.service;
+
+import com.example.timetracking.model.Device;
+import com.example.timetracking.model.Employee;
+import com.example.timetracking.model.Location;
+import com.example.timetracking.model.TimeEntry;
+import com.example.timetracking.repo.TimeEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TimeClockServiceTest {
+
+    private final TimeEntryRepository timeEntryRepository = mock(TimeEntryRepository.class);
+    private final OpenShiftRegistry openShiftRegistry = mock(OpenShiftRegistry.class);
+    private final PinVerificationService pinVerificationService = mock(PinVerificationService.class);
+    private final ClockRequestLedger ledger = mock(ClockRequestLedger.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private TimeClockService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new TimeClockService(timeEntryRepository, openShiftRegistry, pinVerificationService,
+            mock(PinService.class), ledger, mock(DailyTotalsService.class), transactionTemplate,
+            Clock.systemUTC(), mock(ClusterEventBus.class));
+        when(ledger.execute(any(), any(), any())).thenAnswer(inv -> ((Supplier<Object>) inv.getArgument(2)).get());
+        when(ledger.record(any(), any())).thenAnswer(inv -> inv.getArgument(1));
+        when(transactionTemplate.execute(any()))
+            .thenAnswer(inv -> ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    void unknownPinIsAnInvalidPinFailure() {
+        when(pinVerificationService.findActiveEmployee("9999")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.clockIn(new Device(), "9999", null))
+            .isInstanceOf(InvalidPinException.class);
+    }
+
+    @Test
+    void businessErrorsAreNotInvalidPinFailures() {
+        Employee employee = new Employee();
+        employee.setId(7L);
+        when(pinVerificationService.findActiveEmployee("1234")).thenReturn(Optional.of(employee));
+        when(openShiftRegistry.findByEmployee(7L)).thenReturn(Optional.of(
+            new OpenShiftRegistry.OpenShift(1L, 7L, "Test", 1L, 1L, Instant.now())));
+
+        assertThatThrownBy(() -> service.clockIn(new Device(), "1234", null))
+            .isInstanceOf(IllegalStateException.class)
+            .isNotInstanceOf(InvalidPinException.class);
+    }
+
+    @Test
+    void clockOutFallsBackToTheDatabaseWhenTheRegistryHasNotCaughtUp() {
+        Employee employee = new Employee();
+        employee.setId(7L);
+        employee.setFullName("Test");
+        Location location = new Location();
+        location.setId(3L);
+        Device device = new Device();
+        device.setId(5L);
+        device.setLocation(location);
+        TimeEntry entry = new TimeEntry();
+        entry.setId(11L);
+        entry.setEmployee(employee);
+        entry.setDevice(device);
+        entry.setLocation(location);
+        entry.setClockInTime(Instant.now().minusSeconds(60));
+        when(pinVerificationService.findActiveEmployee("1234")).thenReturn(Optional.of(employee));
+        when(openShiftRegistry.findByEmployee(7L)).thenReturn(Optional.empty());
+        when(timeEntryRepository.findFirstByEmployeeAndClockOutTimeIsNull(employee)).thenReturn(Optional.of(entry));
+        when(timeEntryRepository.closeShift(eq(11L), any())).thenReturn(1);
+
+        TimeClockService.ClockOutResult result = service.clockOut(device, "1234", null);
+
+        assertThat(result.employeeName()).isEqualTo("Test");
+        verify(openShiftRegistry).apply(any(ShiftChange.class));
+        verify(timeEntryRepository).closeShift(eq(11L), any());
+    }
+}